@@ -0,0 +1,37 @@
+package com.thephysc.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Runs the Flyway migrations in {@code db/migration} once Hibernate has updated the schema from
+ * the entities, instead of before it as Spring Boot would.
+ * <p>
+ * The entities, through {@code ddl-auto}, stay the source of tables and columns, so V1 to V7,
+ * which predate them, are only baselined. The later migrations carry what {@code ddl-auto} cannot
+ * do on an existing database, such as moving the id sequences past ids already issued or adding a
+ * unique key to a table that has rows, and are written to apply on top of whatever it has just
+ * created. Nothing writes to the database before the application context has been refreshed, so
+ * they are in place before the first insert. Beans that need a table only a migration creates
+ * depend on {@code schemaMigrations}.
+ */
+@Configuration
+public class SchemaMigrationConfig {
+
+    // Spring Boot's initializer would migrate before the entity manager factory is built
+    @Bean
+    public FlywayMigrationStrategy deferredFlywayMigration() {
+        return flyway -> { };
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean schemaMigrations(ObjectProvider<Flyway> flyway) {
+        return () -> flyway.ifAvailable(Flyway::migrate);
+    }
+}
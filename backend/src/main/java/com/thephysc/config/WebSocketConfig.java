@@ -1,5 +1,6 @@
 package com.thephysc.config;
 
+import com.thephysc.modules.video.websocket.SignalingHandshakeInterceptor;
 import com.thephysc.modules.video.websocket.WebRTCSignalingHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
@@ -12,15 +13,19 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final WebRTCSignalingHandler webRTCSignalingHandler;
+    private final SignalingHandshakeInterceptor signalingHandshakeInterceptor;
 
     @Autowired
-    public WebSocketConfig(WebRTCSignalingHandler webRTCSignalingHandler) {
+    public WebSocketConfig(WebRTCSignalingHandler webRTCSignalingHandler,
+                           SignalingHandshakeInterceptor signalingHandshakeInterceptor) {
         this.webRTCSignalingHandler = webRTCSignalingHandler;
+        this.signalingHandshakeInterceptor = signalingHandshakeInterceptor;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(webRTCSignalingHandler, "/api/ws/rtc")
+                .addInterceptors(signalingHandshakeInterceptor)
                 .setAllowedOrigins("*"); // In production, restrict to specific origins
     }
 }
@@ -0,0 +1,70 @@
+package com.thephysc.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Connection quality of one participant of a video session over one flush window, downsampled
+ * from the WebRTC stats the client reported during it.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "call_quality_samples", indexes = @Index(
+        name = "idx_call_quality_samples_session_window", columnList = "session_id, window_end"))
+public class CallQualitySample {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "call_quality_samples_seq")
+    @SequenceGenerator(name = "call_quality_samples_seq", sequenceName = "call_quality_samples_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private String sessionId;
+
+    @Column(name = "participant_id", nullable = false)
+    private String participantId;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+
+    @Column(name = "sample_count", nullable = false)
+    private int sampleCount;
+
+    @Column(name = "rtt_p50_ms")
+    private Double rttP50Ms;
+
+    @Column(name = "rtt_p95_ms")
+    private Double rttP95Ms;
+
+    @Column(name = "jitter_p50_ms")
+    private Double jitterP50Ms;
+
+    @Column(name = "jitter_p95_ms")
+    private Double jitterP95Ms;
+
+    @Column(name = "packet_loss_p50")
+    private Double packetLossP50; // percent
+
+    @Column(name = "packet_loss_p95")
+    private Double packetLossP95; // percent
+
+    @Column(name = "bitrate_p50_kbps")
+    private Double bitrateP50Kbps;
+
+    @Column(name = "bitrate_p05_kbps")
+    private Double bitrateP05Kbps;
+
+    @Column(name = "quality")
+    private String quality; // excellent, good, poor
+}
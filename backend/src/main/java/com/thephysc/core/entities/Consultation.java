@@ -15,11 +15,13 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "consultations")
+@Table(name = "consultations", uniqueConstraints = @UniqueConstraint(
+        name = "uk_consultations_appointment", columnNames = "appointment_id"))
 public class Consultation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "consultations_seq")
+    @SequenceGenerator(name = "consultations_seq", sequenceName = "consultations_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
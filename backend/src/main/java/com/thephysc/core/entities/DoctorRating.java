@@ -0,0 +1,48 @@
+package com.thephysc.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A patient's rating of a doctor they have seen. The doctor's average and count are kept on the
+ * doctor row; this records who rated, so each patient rates each doctor once, and whether the
+ * rating has been added to the doctor row yet.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "doctor_ratings", uniqueConstraints = @UniqueConstraint(
+        name = "uk_doctor_ratings_doctor_patient", columnNames = {"doctor_id", "patient_id"}))
+public class DoctorRating {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "doctor_ratings_seq")
+    @SequenceGenerator(name = "doctor_ratings_seq", sequenceName = "doctor_ratings_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private Doctor doctor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+
+    @Column(nullable = false)
+    private Integer rating;
+
+    @Column(nullable = false)
+    private boolean applied;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -14,11 +14,13 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "meeting_messages")
+@Table(name = "meeting_messages", indexes = @Index(
+        name = "idx_meeting_messages_room_created", columnList = "meeting_room_id, created_at, id"))
 public class MeetingMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meeting_messages_seq")
+    @SequenceGenerator(name = "meeting_messages_seq", sequenceName = "meeting_messages_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
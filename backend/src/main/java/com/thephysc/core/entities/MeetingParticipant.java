@@ -16,11 +16,13 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "meeting_participants")
+@Table(name = "meeting_participants", uniqueConstraints = @UniqueConstraint(
+        name = "uk_meeting_participants_room_participant", columnNames = {"meeting_room_id", "participant_id"}))
 public class MeetingParticipant {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meeting_participants_seq")
+    @SequenceGenerator(name = "meeting_participants_seq", sequenceName = "meeting_participants_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -22,7 +22,8 @@ import java.util.List;
 public class MeetingRoom {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meeting_rooms_seq")
+    @SequenceGenerator(name = "meeting_rooms_seq", sequenceName = "meeting_rooms_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "room_id", nullable = false, unique = true)
@@ -119,13 +120,4 @@ public class MeetingRoom {
     public boolean hasExpired() {
         return scheduledEndTime != null && LocalDateTime.now().isAfter(scheduledEndTime);
     }
-
-    public long getActiveParticipantsCount() {
-        if (participants == null) {
-            return 0;
-        }
-        return participants.stream()
-                .filter(p -> p.getStatus() == MeetingParticipant.ParticipantStatus.CONNECTED)
-                .count();
-    }
 }
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class VideoSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "video_sessions_seq")
+    @SequenceGenerator(name = "video_sessions_seq", sequenceName = "video_sessions_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
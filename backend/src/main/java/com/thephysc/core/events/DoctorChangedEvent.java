@@ -0,0 +1,26 @@
+package com.thephysc.core.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by the services that insert, update or delete a doctor, including changes to only
+ * its specializations, education or certifications, which entity lifecycle callbacks miss.
+ * Listeners that keep in-memory read models of doctors should react to it
+ * after the surrounding transaction has committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DoctorChangedEvent {
+
+    private final Long doctorId;
+    private final ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,20 @@
+package com.thephysc.core.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Published when meeting rooms are ended, one at a time or in bulk by the expiry job.
+ * Listeners that hold in-memory state for a room, such as presence or signaling connections,
+ * should drop it after the surrounding transaction has committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MeetingsEndedEvent {
+
+    private final List<String> roomIds;
+}
@@ -0,0 +1,39 @@
+package com.thephysc.core.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published when consultations and their video sessions are created ahead of upcoming video
+ * appointments. Listeners can cache what starting or joining those sessions needs, after the
+ * surrounding transaction has committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class VideoSessionsPreparedEvent {
+
+    private final List<PreparedSession> sessions;
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class PreparedSession {
+        private final Long appointmentId;
+        private final Long consultationId;
+        private final String sessionId;
+        private final Long doctorId;
+        private final Long doctorUserId;
+        private final String doctorEmail;
+        private final String doctorName;
+        private final Long patientId;
+        private final Long patientUserId;
+        private final String patientEmail;
+        private final String patientName;
+        private final LocalDateTime createdAt;
+    }
+}
@@ -4,6 +4,7 @@ import com.thephysc.core.entities.Appointment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -57,4 +58,41 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
             LocalDateTime startDateTime, 
             LocalDateTime endDateTime, 
             Appointment.AppointmentStatus status);
+
+    // Claims upcoming video appointments that have no consultation yet, with what starting and
+    // joining them needs; rows another node has already claimed are skipped, not waited on
+    @Query(value = "SELECT a.id AS \"id\", " +
+                   "d.id AS \"doctorId\", du.id AS \"doctorUserId\", du.email AS \"doctorEmail\", " +
+                   "du.first_name || ' ' || du.last_name AS \"doctorName\", " +
+                   "p.id AS \"patientId\", pu.id AS \"patientUserId\", pu.email AS \"patientEmail\", " +
+                   "pu.first_name || ' ' || pu.last_name AS \"patientName\" " +
+                   "FROM appointments a " +
+                   "JOIN doctors d ON d.id = a.doctor_id JOIN users du ON du.id = d.user_id " +
+                   "JOIN patients p ON p.id = a.patient_id JOIN users pu ON pu.id = p.user_id " +
+                   "WHERE a.status = 'SCHEDULED' AND a.consultation_type = 'VIDEO' " +
+                   "AND a.appointment_date < :until AND a.end_time > :now " +
+                   "AND NOT EXISTS (SELECT 1 FROM consultations c WHERE c.appointment_id = a.id) " +
+                   "ORDER BY a.appointment_date, a.id LIMIT :limit FOR UPDATE OF a SKIP LOCKED", nativeQuery = true)
+    List<UpcomingVideoAppointmentRow> lockUnpreparedVideoAppointments(
+            @Param("now") LocalDateTime now,
+            @Param("until") LocalDateTime until,
+            @Param("limit") int limit);
+
+    // Conditional, so an appointment cancelled or already started is left alone
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = 'IN_PROGRESS', a.updatedAt = :now " +
+           "WHERE a.id = :id AND a.status = 'SCHEDULED'")
+    int markInProgress(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    interface UpcomingVideoAppointmentRow {
+        Long getId();
+        Long getDoctorId();
+        Long getDoctorUserId();
+        String getDoctorEmail();
+        String getDoctorName();
+        Long getPatientId();
+        Long getPatientUserId();
+        String getPatientEmail();
+        String getPatientName();
+    }
 }
@@ -0,0 +1,9 @@
+package com.thephysc.core.repositories;
+
+import com.thephysc.core.entities.CallQualitySample;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CallQualitySampleRepository extends JpaRepository<CallQualitySample, Long> {
+}
@@ -4,8 +4,13 @@ import com.thephysc.core.entities.Consultation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface ConsultationRepository extends JpaRepository<Consultation, Long> {
 
@@ -24,4 +29,10 @@ public interface ConsultationRepository extends JpaRepository<Consultation, Long
             Pageable pageable);
             
     Consultation findByAppointment_Id(Long appointmentId);
+
+    // Conditional, so a consultation prepared ahead of its appointment is started only once
+    @Modifying
+    @Query("UPDATE Consultation c SET c.status = 'IN_PROGRESS', c.startTime = :now, c.updatedAt = :now " +
+           "WHERE c.id = :id AND c.status = 'SCHEDULED'")
+    int markStarted(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,33 @@
+package com.thephysc.core.repositories;
+
+import com.thephysc.core.entities.DoctorRating;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DoctorRatingRepository extends JpaRepository<DoctorRating, Long> {
+
+    @Query("SELECT r.id AS id, r.doctor.id AS doctorId, r.rating AS rating " +
+           "FROM DoctorRating r WHERE r.applied = false ORDER BY r.id")
+    List<UnappliedRow> findUnapplied(Pageable pageable);
+
+    // Rows another flush has marked meanwhile are not counted, so the caller can tell it lost the race
+    @Modifying
+    @Query("UPDATE DoctorRating r SET r.applied = true WHERE r.id IN :ids AND r.applied = false")
+    int markApplied(@Param("ids") Collection<Long> ids);
+
+    interface UnappliedRow {
+        Long getId();
+
+        Long getDoctorId();
+
+        Integer getRating();
+    }
+}
@@ -4,13 +4,20 @@ import com.thephysc.core.entities.Doctor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     
@@ -18,15 +25,87 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     
     Optional<Doctor> findByUser_Email(String email);
     
-    @Query("SELECT d FROM Doctor d WHERE " +
-           "LOWER(d.specialty) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(d.user.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(d.user.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Doctor> searchDoctors(@Param("searchTerm") String searchTerm, Pageable pageable);
-    
     @Query("SELECT DISTINCT d FROM Doctor d JOIN d.specializations s WHERE s = :specialization")
     List<Doctor> findBySpecialization(@Param("specialization") String specialization);
     
-    @Query("SELECT d FROM Doctor d ORDER BY d.averageRating DESC")
+    @Query("SELECT d FROM Doctor d ORDER BY d.averageRating DESC NULLS LAST")
     Page<Doctor> findTopRatedDoctors(Pageable pageable);
+
+    @Query("SELECT d FROM Doctor d JOIN FETCH d.user")
+    List<Doctor> findAllWithUser();
+
+    @Query("SELECT d.id AS doctorId, s AS specialization FROM Doctor d JOIN d.specializations s")
+    List<SpecializationRow> findAllSpecializationRows();
+
+    @Query("SELECT DISTINCT d FROM Doctor d JOIN FETCH d.user LEFT JOIN FETCH d.specializations WHERE d.id = :id")
+    Optional<Doctor> findWithUserAndSpecializationsById(@Param("id") Long id);
+
+    @Query(value = "SELECT d.id FROM Doctor d", countQuery = "SELECT COUNT(d) FROM Doctor d")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    @Query("SELECT d FROM Doctor d JOIN FETCH d.user WHERE d.id IN :ids")
+    List<Doctor> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT d.id AS doctorId, s AS specialization FROM Doctor d JOIN d.specializations s WHERE d.id IN :ids")
+    List<SpecializationRow> findSpecializationRowsByDoctorIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT d.id AS doctorId, e.degree AS degree, e.institution AS institution, e.year AS year " +
+           "FROM Doctor d JOIN d.education e WHERE d.id IN :ids")
+    List<EducationRow> findEducationRowsByDoctorIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT d.id AS doctorId, c.name AS name, c.issuingAuthority AS issuingAuthority, c.year AS year " +
+           "FROM Doctor d JOIN d.certifications c WHERE d.id IN :ids")
+    List<CertificationRow> findCertificationRowsByDoctorIdIn(@Param("ids") Collection<Long> ids);
+
+    // Limits second-level cache invalidation to the doctors region
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "doctors"))
+    @Query(value = "UPDATE doctors SET " +
+           "average_rating = (COALESCE(average_rating, 0) * COALESCE(rating_count, 0) + :ratingSum) " +
+           "/ (COALESCE(rating_count, 0) + :ratingCount), " +
+           "rating_count = COALESCE(rating_count, 0) + :ratingCount " +
+           "WHERE id = :doctorId", nativeQuery = true)
+    int applyRatingDelta(
+            @Param("doctorId") Long doctorId,
+            @Param("ratingCount") long ratingCount,
+            @Param("ratingSum") long ratingSum);
+
+    @Query("SELECT d.id AS doctorId, d.averageRating AS averageRating, d.ratingCount AS ratingCount " +
+           "FROM Doctor d WHERE d.id IN :ids")
+    List<RatingRow> findRatingsByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface RatingRow {
+        Long getDoctorId();
+
+        Double getAverageRating();
+
+        Integer getRatingCount();
+    }
+
+    interface EducationRow {
+        Long getDoctorId();
+
+        String getDegree();
+
+        String getInstitution();
+
+        Integer getYear();
+    }
+
+    interface CertificationRow {
+        Long getDoctorId();
+
+        String getName();
+
+        String getIssuingAuthority();
+
+        Integer getYear();
+    }
+
+    interface SpecializationRow {
+        Long getDoctorId();
+
+        String getSpecialization();
+    }
 }
@@ -12,7 +12,30 @@ import java.util.List;
 @Repository
 public interface MeetingMessageRepository extends JpaRepository<MeetingMessage, Long> {
 
-    List<MeetingMessage> findByMeetingRoomRoomIdOrderByCreatedAtAsc(String roomId);
+    // Newest first; older pages follow with findPageBefore
+    @Query(value = "SELECT * FROM meeting_messages WHERE meeting_room_id = :roomPk " +
+                   "AND (:includeSystem = TRUE OR is_system_message IS NOT TRUE) " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<MeetingMessage> findLatest(
+            @Param("roomPk") Long roomPk,
+            @Param("includeSystem") boolean includeSystem,
+            @Param("limit") int limit);
+
+    // Answered from the idx_meeting_messages_room_created index
+    @Query(value = "SELECT COUNT(*) FROM meeting_messages WHERE meeting_room_id = :roomPk", nativeQuery = true)
+    long countByRoom(@Param("roomPk") Long roomPk);
+
+    // Keyset page on (created_at, id), so deep pages cost the same as the first one
+    @Query(value = "SELECT * FROM meeting_messages WHERE meeting_room_id = :roomPk " +
+                   "AND (created_at, id) < (:createdAt, :id) " +
+                   "AND (:includeSystem = TRUE OR is_system_message IS NOT TRUE) " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<MeetingMessage> findPageBefore(
+            @Param("roomPk") Long roomPk,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            @Param("includeSystem") boolean includeSystem,
+            @Param("limit") int limit);
 
     List<MeetingMessage> findByMeetingRoomRoomIdAndMessageType(String roomId, MeetingMessage.MessageType messageType);
 
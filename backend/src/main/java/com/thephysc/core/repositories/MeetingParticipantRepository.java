@@ -2,15 +2,17 @@ package com.thephysc.core.repositories;
 
 import com.thephysc.core.entities.MeetingParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MeetingParticipantRepository extends JpaRepository<MeetingParticipant, Long> {
+public interface MeetingParticipantRepository extends JpaRepository<MeetingParticipant, Long>, MeetingParticipantRepositoryCustom {
 
     List<MeetingParticipant> findByMeetingRoomRoomId(String roomId);
 
@@ -21,8 +23,27 @@ public interface MeetingParticipantRepository extends JpaRepository<MeetingParti
     @Query("SELECT p FROM MeetingParticipant p WHERE p.meetingRoom.roomId = :roomId AND p.status = 'CONNECTED'")
     List<MeetingParticipant> findActiveParticipants(@Param("roomId") String roomId);
 
-    @Query("SELECT COUNT(p) FROM MeetingParticipant p WHERE p.meetingRoom.roomId = :roomId AND p.status = 'CONNECTED'")
-    Long countActiveParticipants(@Param("roomId") String roomId);
-
     boolean existsByMeetingRoomRoomIdAndParticipantId(String roomId, String participantId);
+
+    @Modifying
+    @Query("UPDATE MeetingParticipant p SET p.status = 'LEFT', p.leftAt = :now, p.updatedAt = :now " +
+           "WHERE p.meetingRoom.id IN :roomIds AND p.status = 'CONNECTED'")
+    int markConnectedLeft(@Param("roomIds") List<Long> roomIds, @Param("now") LocalDateTime now);
+
+    // Only connected participants, so a late quality report cannot touch someone who has left
+    @Modifying
+    @Query("UPDATE MeetingParticipant p SET p.connectionQuality = :quality, p.updatedAt = :now " +
+           "WHERE p.meetingRoom.id = (SELECT mr.id FROM MeetingRoom mr WHERE mr.roomId = :roomId) " +
+           "AND p.participantId IN :participantIds AND p.status = 'CONNECTED'")
+    int updateConnectionQuality(
+            @Param("roomId") String roomId,
+            @Param("participantIds") List<String> participantIds,
+            @Param("quality") String quality,
+            @Param("now") LocalDateTime now);
+
+    // Loads a room into the MeetingPresenceRegistry of the node that owns it
+    @Query("SELECT p.participantId FROM MeetingParticipant p WHERE p.meetingRoom.roomId = :roomId AND p.status = 'CONNECTED'")
+    List<String> findConnectedParticipantIds(@Param("roomId") String roomId);
+
+    long countByMeetingRoomRoomIdAndStatus(String roomId, MeetingParticipant.ParticipantStatus status);
 }
@@ -0,0 +1,17 @@
+package com.thephysc.core.repositories;
+
+import com.thephysc.core.entities.MeetingParticipant;
+
+import java.time.LocalDateTime;
+
+public interface MeetingParticipantRepositoryCustom {
+
+    /**
+     * Inserts the participant as connected, or marks an existing participant of the room as
+     * connected again, in a single statement that returns the resulting row. A rejoining
+     * participant keeps their name, email and role.
+     */
+    MeetingParticipant upsertConnected(Long meetingRoomPk, String participantId, String participantName,
+                                       String participantEmail, MeetingParticipant.ParticipantRole role,
+                                       boolean audioEnabled, boolean videoEnabled, LocalDateTime joinedAt);
+}
@@ -0,0 +1,56 @@
+package com.thephysc.core.repositories;
+
+import com.thephysc.core.entities.MeetingParticipant;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StringType;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+
+@Transactional
+public class MeetingParticipantRepositoryCustomImpl implements MeetingParticipantRepositoryCustom {
+
+    // Relies on the uk_meeting_participants_room_participant unique key, added by V9 and the entity mapping
+    private static final String UPSERT_CONNECTED = "INSERT INTO meeting_participants (id, meeting_room_id, participant_id, " +
+            "participant_name, participant_email, role, status, joined_at, is_audio_enabled, is_video_enabled, " +
+            "is_screen_sharing, created_at, updated_at) " +
+            "VALUES (:id, :meetingRoomId, :participantId, :participantName, :participantEmail, :role, 'CONNECTED', " +
+            ":joinedAt, :audioEnabled, :videoEnabled, false, :joinedAt, :joinedAt) " +
+            "ON CONFLICT (meeting_room_id, participant_id) DO UPDATE SET status = 'CONNECTED', " +
+            "joined_at = EXCLUDED.joined_at, is_audio_enabled = EXCLUDED.is_audio_enabled, " +
+            "is_video_enabled = EXCLUDED.is_video_enabled, updated_at = EXCLUDED.updated_at " +
+            "RETURNING *";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public MeetingParticipant upsertConnected(Long meetingRoomPk, String participantId, String participantName,
+                                              String participantEmail, MeetingParticipant.ParticipantRole role,
+                                              boolean audioEnabled, boolean videoEnabled, LocalDateTime joinedAt) {
+        NativeQuery<?> query = entityManager.createNativeQuery(UPSERT_CONNECTED, MeetingParticipant.class)
+                .unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace("meeting_participants");
+        // Drawn from the entity's pooled-lo block; a rejoin leaves it unused
+        query.setParameter("id", nextId());
+        query.setParameter("meetingRoomId", meetingRoomPk);
+        query.setParameter("participantId", participantId);
+        query.setParameter("participantName", participantName);
+        // Typed explicitly: an untyped null would be bound as bytea
+        query.setParameter("participantEmail", participantEmail, StringType.INSTANCE);
+        query.setParameter("role", (role != null ? role : MeetingParticipant.ParticipantRole.PARTICIPANT).name());
+        query.setParameter("joinedAt", joinedAt);
+        query.setParameter("audioEnabled", audioEnabled);
+        query.setParameter("videoEnabled", videoEnabled);
+        return (MeetingParticipant) query.getSingleResult();
+    }
+
+    private Long nextId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        return (Long) session.getFactory().getMetamodel().entityPersister(MeetingParticipant.class)
+                .getIdentifierGenerator().generate(session, null);
+    }
+}
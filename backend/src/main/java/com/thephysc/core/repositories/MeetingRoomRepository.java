@@ -1,7 +1,10 @@
 package com.thephysc.core.repositories;
 
 import com.thephysc.core.entities.MeetingRoom;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -26,11 +29,58 @@ public interface MeetingRoomRepository extends JpaRepository<MeetingRoom, Long>
             @Param("endTime") LocalDateTime endTime
     );
 
-    @Query("SELECT mr FROM MeetingRoom mr WHERE mr.scheduledEndTime < :currentTime AND mr.status = 'ACTIVE'")
-    List<MeetingRoom> findExpiredActiveMeetings(@Param("currentTime") LocalDateTime currentTime);
+    // Claims a chunk of expired rooms; rows another node has already claimed are skipped, not waited on
+    @Query(value = "SELECT id AS \"id\", room_id AS \"roomId\" FROM meeting_rooms " +
+                   "WHERE status = 'ACTIVE' AND scheduled_end_time < :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ExpiredRoomRow> lockExpiredActiveMeetings(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE MeetingRoom mr SET mr.status = 'ENDED', mr.actualEndTime = :now, mr.updatedAt = :now " +
+           "WHERE mr.id IN :ids")
+    int markEnded(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
 
     @Query("SELECT COUNT(p) FROM MeetingParticipant p WHERE p.meetingRoom.roomId = :roomId AND p.status = 'CONNECTED'")
     Long countActiveParticipants(@Param("roomId") String roomId);
 
     boolean existsByRoomId(String roomId);
+
+    // Listings read each room with its connected count in one query instead of loading participants
+    @Query(value = "SELECT mr AS room, (SELECT COUNT(p) FROM MeetingParticipant p " +
+                   "WHERE p.meetingRoom = mr AND p.status = 'CONNECTED') AS connectedCount FROM MeetingRoom mr",
+           countQuery = "SELECT COUNT(mr) FROM MeetingRoom mr")
+    Page<RoomListingRow> findListing(Pageable pageable);
+
+    @Query(value = "SELECT mr AS room, (SELECT COUNT(p) FROM MeetingParticipant p " +
+                   "WHERE p.meetingRoom = mr AND p.status = 'CONNECTED') AS connectedCount " +
+                   "FROM MeetingRoom mr WHERE mr.status = :status",
+           countQuery = "SELECT COUNT(mr) FROM MeetingRoom mr WHERE mr.status = :status")
+    Page<RoomListingRow> findListingByStatus(@Param("status") MeetingRoom.RoomStatus status, Pageable pageable);
+
+    // Conditional, so only the first join of a scheduled meeting writes the room
+    @Modifying
+    @Query("UPDATE MeetingRoom mr SET mr.status = 'ACTIVE', " +
+           "mr.actualStartTime = :now, mr.updatedAt = :now " +
+           "WHERE mr.id = :id AND mr.status = 'SCHEDULED'")
+    int markActiveIfScheduled(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE MeetingRoom mr SET mr.scheduledEndTime = :scheduledEndTime, " +
+           "mr.durationMinutes = :durationMinutes, mr.updatedAt = :now WHERE mr.id = :id")
+    int extendSchedule(@Param("id") Long id,
+                       @Param("scheduledEndTime") LocalDateTime scheduledEndTime,
+                       @Param("durationMinutes") Integer durationMinutes,
+                       @Param("now") LocalDateTime now);
+
+    interface RoomListingRow {
+        MeetingRoom getRoom();
+
+        Long getConnectedCount();
+    }
+
+    interface ExpiredRoomRow {
+        Long getId();
+
+        String getRoomId();
+    }
 }
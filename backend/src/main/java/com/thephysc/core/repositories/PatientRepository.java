@@ -1,7 +1,10 @@
 package com.thephysc.core.repositories;
 
+import com.thephysc.core.entities.Appointment;
 import com.thephysc.core.entities.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +15,18 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByUser_Id(Long userId);
     
     Optional<Patient> findByUser_Email(String email);
+
+    @Query("SELECT p.id AS patientId, COUNT(a.id) AS completedVisits FROM Patient p " +
+           "LEFT JOIN Appointment a ON a.patient = p AND a.doctor.id = :doctorId AND a.status = :status " +
+           "WHERE p.user.email = :email GROUP BY p.id")
+    Optional<VisitCountRow> countVisitsByEmail(
+            @Param("email") String email,
+            @Param("doctorId") Long doctorId,
+            @Param("status") Appointment.AppointmentStatus status);
+
+    interface VisitCountRow {
+        Long getPatientId();
+
+        Long getCompletedVisits();
+    }
 }
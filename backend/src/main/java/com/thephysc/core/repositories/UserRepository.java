@@ -4,12 +4,8 @@ import com.thephysc.core.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    
-    Optional<User> findByEmail(String email);
-    
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
     boolean existsByEmail(String email);
 }
@@ -0,0 +1,14 @@
+package com.thephysc.core.repositories;
+
+import com.thephysc.core.entities.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Looks the user up by its natural id, so repeated lookups are served from the
+     * second-level cache instead of issuing a query.
+     */
+    Optional<User> findByEmail(String email);
+}
@@ -2,8 +2,14 @@ package com.thephysc.core.repositories;
 
 import com.thephysc.core.entities.VideoSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +20,25 @@ public interface VideoSessionRepository extends JpaRepository<VideoSession, Long
     Optional<VideoSession> findByConsultation_Id(Long consultationId);
     
     Optional<VideoSession> findBySessionToken(String sessionToken);
+
+    // Who may join the session, read in one query instead of walking consultation -> appointment lazily
+    @Query("SELECT du.id AS doctorUserId, du.email AS doctorEmail, pu.id AS patientUserId, pu.email AS patientEmail " +
+           "FROM VideoSession v JOIN v.consultation c JOIN c.appointment a " +
+           "JOIN a.doctor d JOIN d.user du JOIN a.patient p JOIN p.user pu " +
+           "WHERE v.sessionId = :sessionId")
+    Optional<SessionParticipantsRow> findParticipantsBySessionId(@Param("sessionId") String sessionId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE VideoSession v SET v.lastAccessedAt = :accessedAt WHERE v.sessionId IN :sessionIds")
+    int updateLastAccessedAt(
+            @Param("sessionIds") Collection<String> sessionIds,
+            @Param("accessedAt") LocalDateTime accessedAt);
+
+    interface SessionParticipantsRow {
+        Long getDoctorUserId();
+        String getDoctorEmail();
+        Long getPatientUserId();
+        String getPatientEmail();
+    }
 }
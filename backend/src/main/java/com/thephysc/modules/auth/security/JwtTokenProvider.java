@@ -2,6 +2,8 @@ package com.thephysc.modules.auth.security;
 
 import com.thephysc.config.JwtConfig;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -15,6 +17,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -22,6 +25,9 @@ import java.util.stream.Collectors;
 public class JwtTokenProvider {
 
     private final JwtConfig jwtConfig;
+    // Derived once: the PBKDF2 derivation below is deliberately slow
+    private volatile Key signingKey;
+    private volatile JwtParser parser;
 
     public JwtTokenProvider(JwtConfig jwtConfig) {
         this.jwtConfig = jwtConfig;
@@ -62,6 +68,24 @@ public class JwtTokenProvider {
     }
 
     private Key getSigningKey() {
+        Key key = signingKey;
+        if (key == null) {
+            key = deriveSigningKey();
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
+    }
+
+    private Key deriveSigningKey() {
         // Get the configured secret from properties
         String configuredSecret = jwtConfig.getSecret();
         byte[] keyBytes = configuredSecret.getBytes(StandardCharsets.UTF_8);
@@ -110,11 +134,27 @@ public class JwtTokenProvider {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return getParser().parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Verifies the token's signature and expiry with a single parse.
+     *
+     * @return the claims of a valid access token, or empty if the token is invalid, expired or a refresh token
+     */
+    public Optional<Claims> parseVerifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            Claims claims = getParser().parseClaimsJws(token).getBody();
+            if (Boolean.TRUE.equals(claims.get("refreshToken", Boolean.class))) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
@@ -124,10 +164,7 @@ public class JwtTokenProvider {
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            getParser().parseClaimsJws(token);
             return !isTokenExpired(token);
         } catch (Exception e) {
             return false;
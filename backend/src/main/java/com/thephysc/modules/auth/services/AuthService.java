@@ -3,6 +3,7 @@ package com.thephysc.modules.auth.services;
 import com.thephysc.core.entities.Doctor;
 import com.thephysc.core.entities.Patient;
 import com.thephysc.core.entities.User;
+import com.thephysc.core.events.DoctorChangedEvent;
 import com.thephysc.core.repositories.DoctorRepository;
 import com.thephysc.core.repositories.PatientRepository;
 import com.thephysc.core.repositories.UserRepository;
@@ -11,6 +12,7 @@ import com.thephysc.modules.auth.dto.LoginResponse;
 import com.thephysc.modules.auth.dto.RegisterRequest;
 import com.thephysc.modules.auth.dto.TokenResponse;
 import com.thephysc.modules.auth.security.JwtTokenProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -37,6 +39,7 @@ public class AuthService {
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthService(
             AuthenticationManager authenticationManager,
@@ -44,13 +47,15 @@ public class AuthService {
             UserRepository userRepository,
             DoctorRepository doctorRepository,
             PatientRepository patientRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            ApplicationEventPublisher eventPublisher) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.userRepository = userRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     public LoginResponse login(LoginRequest loginRequest) {
@@ -151,6 +156,7 @@ public class AuthService {
             
             Doctor savedDoctor = doctorRepository.save(doctor);
             profileId = savedDoctor.getId();
+            eventPublisher.publishEvent(new DoctorChangedEvent(profileId, DoctorChangedEvent.ChangeType.CREATED));
         } else if (registerRequest.getRole().equals("ROLE_PATIENT")) {
             Patient patient = new Patient();
             patient.setUser(savedUser);
@@ -0,0 +1,141 @@
+package com.thephysc.modules.consultations.services;
+
+import com.thephysc.core.entities.Consultation;
+import com.thephysc.core.entities.VideoSession;
+import com.thephysc.core.events.VideoSessionsPreparedEvent;
+import com.thephysc.core.repositories.AppointmentRepository;
+import com.thephysc.core.repositories.ConsultationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates the consultation and video session of each video appointment shortly before it starts,
+ * so starting the consultation and joining the call do not insert anything.
+ * <p>
+ * Every node runs the job. Appointments starting within {@code consultations.preparation.lead-minutes}
+ * that have no consultation yet are claimed in chunks with {@code FOR UPDATE SKIP LOCKED}, so nodes
+ * running at the same time mostly prepare disjoint appointments; an appointment another node has
+ * just prepared can still be claimed, and the unique index on {@code consultations.appointment_id}
+ * then rolls the chunk back to be claimed again. Each chunk is one batch of inserts
+ * followed by a {@link VideoSessionsPreparedEvent}, from which {@link PreparedConsultations} and the
+ * video module cache what starting and joining need once the chunk has committed.
+ */
+@Slf4j
+@Component
+public class ConsultationPreparationJob {
+
+    private static final int MAX_CONFLICTS = 3;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ConsultationRepository consultationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long leadMinutes;
+    private final int chunkSize;
+
+    public ConsultationPreparationJob(
+            AppointmentRepository appointmentRepository,
+            ConsultationRepository consultationRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${consultations.preparation.enabled:true}") boolean enabled,
+            @Value("${consultations.preparation.lead-minutes:10}") long leadMinutes,
+            @Value("${consultations.preparation.chunk-size:200}") int chunkSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.consultationRepository = consultationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.leadMinutes = leadMinutes;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${consultations.preparation.interval-ms:60000}")
+    public void run() {
+        if (enabled) {
+            prepareUpcomingConsultations();
+        }
+    }
+
+    /**
+     * @return the number of consultations this call prepared
+     */
+    public int prepareUpcomingConsultations() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusMinutes(leadMinutes);
+        int total = 0;
+        int conflicts = 0;
+        while (true) {
+            int prepared;
+            try {
+                Integer chunk = transactionTemplate.execute(status -> prepareChunk(now, until));
+                prepared = chunk != null ? chunk : 0;
+            } catch (DataIntegrityViolationException e) {
+                // Another node committed some of these appointments while the chunk was being claimed;
+                // claiming again no longer sees them
+                if (++conflicts > MAX_CONFLICTS) {
+                    break;
+                }
+                continue;
+            } catch (RuntimeException e) {
+                log.warn("Could not prepare upcoming consultations: {}", e.getMessage());
+                break;
+            }
+            total += prepared;
+            if (prepared < chunkSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Prepared {} consultations for upcoming video appointments", total);
+        }
+        return total;
+    }
+
+    private int prepareChunk(LocalDateTime now, LocalDateTime until) {
+        List<AppointmentRepository.UpcomingVideoAppointmentRow> upcoming =
+                appointmentRepository.lockUnpreparedVideoAppointments(now, until, chunkSize);
+        if (upcoming.isEmpty()) {
+            return 0;
+        }
+        List<Consultation> consultations = new ArrayList<>(upcoming.size());
+        for (AppointmentRepository.UpcomingVideoAppointmentRow row : upcoming) {
+            Consultation consultation = new Consultation();
+            consultation.setAppointment(appointmentRepository.getReferenceById(row.getId()));
+            consultation.setStatus(Consultation.ConsultationStatus.SCHEDULED);
+            consultation.setCreatedAt(now);
+
+            VideoSession videoSession = new VideoSession();
+            videoSession.setSessionId(UUID.randomUUID().toString());
+            videoSession.setConsultation(consultation);
+            videoSession.setCreatedAt(now);
+            consultation.setVideoSession(videoSession);
+            consultations.add(consultation);
+        }
+        consultationRepository.saveAll(consultations);
+
+        List<VideoSessionsPreparedEvent.PreparedSession> sessions = new ArrayList<>(upcoming.size());
+        for (int i = 0; i < upcoming.size(); i++) {
+            AppointmentRepository.UpcomingVideoAppointmentRow row = upcoming.get(i);
+            Consultation consultation = consultations.get(i);
+            sessions.add(new VideoSessionsPreparedEvent.PreparedSession(
+                    row.getId(), consultation.getId(), consultation.getVideoSession().getSessionId(),
+                    row.getDoctorId(), row.getDoctorUserId(), row.getDoctorEmail(), row.getDoctorName(),
+                    row.getPatientId(), row.getPatientUserId(), row.getPatientEmail(), row.getPatientName(),
+                    consultation.getCreatedAt()));
+        }
+        eventPublisher.publishEvent(new VideoSessionsPreparedEvent(sessions));
+        return upcoming.size();
+    }
+}
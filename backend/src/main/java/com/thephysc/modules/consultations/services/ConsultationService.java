@@ -4,6 +4,7 @@ import com.thephysc.core.entities.Appointment;
 import com.thephysc.core.entities.Consultation;
 import com.thephysc.core.entities.Doctor;
 import com.thephysc.core.entities.VideoSession;
+import com.thephysc.core.events.VideoSessionsPreparedEvent;
 import com.thephysc.core.repositories.AppointmentRepository;
 import com.thephysc.core.repositories.ConsultationRepository;
 import com.thephysc.core.repositories.DoctorRepository;
@@ -29,16 +30,19 @@ public class ConsultationService {
     private final AppointmentRepository appointmentRepository;
     private final DoctorRepository doctorRepository;
     private final VideoSessionRepository videoSessionRepository;
+    private final PreparedConsultations preparedConsultations;
 
     public ConsultationService(
             ConsultationRepository consultationRepository,
             AppointmentRepository appointmentRepository,
             DoctorRepository doctorRepository,
-            VideoSessionRepository videoSessionRepository) {
+            VideoSessionRepository videoSessionRepository,
+            PreparedConsultations preparedConsultations) {
         this.consultationRepository = consultationRepository;
         this.appointmentRepository = appointmentRepository;
         this.doctorRepository = doctorRepository;
         this.videoSessionRepository = videoSessionRepository;
+        this.preparedConsultations = preparedConsultations;
     }
 
     @Transactional
@@ -46,6 +50,12 @@ public class ConsultationService {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
         
+        // A consultation prepared on this node is started with two conditional updates and no reads
+        VideoSessionsPreparedEvent.PreparedSession prepared = preparedConsultations.get(appointmentId);
+        if (prepared != null && prepared.getDoctorEmail().equals(email)) {
+            return startPreparedConsultation(prepared);
+        }
+        
         // Verify doctor is authorized
         Doctor doctor = doctorRepository.findByUser_Email(email)
                 .orElseThrow(() -> new AccessDeniedException("Only doctors can start consultations"));
@@ -64,27 +74,31 @@ public class ConsultationService {
             throw new IllegalStateException("Appointment is not in SCHEDULED state");
         }
         
-        // Check if consultation already exists
-        Consultation existingConsultation = consultationRepository.findByAppointment_Id(appointmentId);
-        if (existingConsultation != null) {
+        // Check if consultation already exists; one prepared ahead of the appointment is started instead
+        Consultation consultation = consultationRepository.findByAppointment_Id(appointmentId);
+        if (consultation != null && consultation.getStatus() != Consultation.ConsultationStatus.SCHEDULED) {
             throw new IllegalStateException("Consultation for this appointment already exists");
         }
         
-        // Create a new consultation
-        Consultation consultation = new Consultation();
-        consultation.setAppointment(appointment);
+        if (consultation == null) {
+            // Create a new consultation
+            consultation = new Consultation();
+            consultation.setAppointment(appointment);
+            consultation.setCreatedAt(LocalDateTime.now());
+        }
         consultation.setStartTime(LocalDateTime.now());
         consultation.setStatus(Consultation.ConsultationStatus.IN_PROGRESS);
-        consultation.setCreatedAt(LocalDateTime.now());
         
-        // Create video session
-        VideoSession videoSession = new VideoSession();
-        videoSession.setSessionId(UUID.randomUUID().toString());
-        videoSession.setConsultation(consultation);
-        videoSession.setCreatedAt(LocalDateTime.now());
+        if (consultation.getVideoSession() == null) {
+            // Create video session
+            VideoSession videoSession = new VideoSession();
+            videoSession.setSessionId(UUID.randomUUID().toString());
+            videoSession.setConsultation(consultation);
+            videoSession.setCreatedAt(LocalDateTime.now());
+            consultation.setVideoSession(videoSession);
+        }
         
         // Save consultation
-        consultation.setVideoSession(videoSession);
         Consultation savedConsultation = consultationRepository.save(consultation);
         
         // Update appointment status
@@ -94,6 +108,31 @@ public class ConsultationService {
         return mapToDto(savedConsultation);
     }
 
+    private ConsultationDto startPreparedConsultation(VideoSessionsPreparedEvent.PreparedSession prepared) {
+        LocalDateTime now = LocalDateTime.now();
+        if (appointmentRepository.markInProgress(prepared.getAppointmentId(), now) == 0) {
+            throw new IllegalStateException("Appointment is not in SCHEDULED state");
+        }
+        if (consultationRepository.markStarted(prepared.getConsultationId(), now) == 0) {
+            throw new IllegalStateException("Consultation for this appointment already exists");
+        }
+        preparedConsultations.remove(prepared.getAppointmentId());
+        
+        ConsultationDto dto = new ConsultationDto();
+        dto.setId(prepared.getConsultationId());
+        dto.setAppointmentId(prepared.getAppointmentId());
+        dto.setDoctorId(prepared.getDoctorId());
+        dto.setDoctorName(prepared.getDoctorName());
+        dto.setPatientId(prepared.getPatientId());
+        dto.setPatientName(prepared.getPatientName());
+        dto.setStartTime(now);
+        dto.setStatus(Consultation.ConsultationStatus.IN_PROGRESS.name());
+        dto.setVideoSessionId(prepared.getSessionId());
+        dto.setCreatedAt(prepared.getCreatedAt());
+        dto.setUpdatedAt(now);
+        return dto;
+    }
+
     @Transactional
     public ConsultationDto endConsultation(Long consultationId, ConsultationNotes notes) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -0,0 +1,46 @@
+package com.thephysc.modules.consultations.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thephysc.core.events.VideoSessionsPreparedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Consultations prepared ahead of their appointments by the {@link ConsultationPreparationJob},
+ * by appointment id, so starting one needs no reads. Entries are per node: an appointment
+ * prepared by another node is started from the database.
+ */
+@Component
+public class PreparedConsultations {
+
+    private final Cache<Long, VideoSessionsPreparedEvent.PreparedSession> byAppointment;
+
+    public PreparedConsultations(@Value("${consultations.preparation.cache-size:50000}") long cacheSize) {
+        this.byAppointment = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofHours(2))
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoSessionsPrepared(VideoSessionsPreparedEvent event) {
+        for (VideoSessionsPreparedEvent.PreparedSession session : event.getSessions()) {
+            byAppointment.put(session.getAppointmentId(), session);
+        }
+    }
+
+    /**
+     * @return the prepared consultation, or {@code null} if this node did not prepare one lately
+     */
+    VideoSessionsPreparedEvent.PreparedSession get(Long appointmentId) {
+        return byAppointment.getIfPresent(appointmentId);
+    }
+
+    void remove(Long appointmentId) {
+        byAppointment.invalidate(appointmentId);
+    }
+}
@@ -0,0 +1,84 @@
+package com.thephysc.modules.doctors.controllers;
+
+import com.thephysc.modules.doctors.dto.DoctorProfileDto;
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import com.thephysc.modules.doctors.dto.SubmitRatingRequest;
+import com.thephysc.modules.doctors.services.DoctorDirectoryService;
+import com.thephysc.modules.doctors.services.DoctorProfileService;
+import com.thephysc.modules.doctors.services.DoctorRatingService;
+import com.thephysc.modules.doctors.services.DoctorSearchService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/doctors")
+public class DoctorController {
+
+    private final DoctorSearchService doctorSearchService;
+    private final DoctorDirectoryService doctorDirectoryService;
+    private final DoctorRatingService doctorRatingService;
+    private final DoctorProfileService doctorProfileService;
+
+    public DoctorController(
+            DoctorSearchService doctorSearchService,
+            DoctorDirectoryService doctorDirectoryService,
+            DoctorRatingService doctorRatingService,
+            DoctorProfileService doctorProfileService) {
+        this.doctorSearchService = doctorSearchService;
+        this.doctorDirectoryService = doctorDirectoryService;
+        this.doctorRatingService = doctorRatingService;
+        this.doctorProfileService = doctorProfileService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Page<DoctorProfileDto>> getDoctors(@PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(doctorProfileService.getProfiles(pageable));
+    }
+
+    @GetMapping("/{doctorId}")
+    public ResponseEntity<DoctorProfileDto> getDoctor(@PathVariable Long doctorId) {
+        return ResponseEntity.ok(doctorProfileService.getProfile(doctorId));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<DoctorSummaryDto>> searchDoctors(
+            @RequestParam("q") String query,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(doctorSearchService.searchDoctors(query, pageable));
+    }
+
+    @GetMapping("/specializations")
+    public ResponseEntity<Map<String, Integer>> getSpecializations() {
+        return ResponseEntity.ok(doctorDirectoryService.getSpecializations());
+    }
+
+    @GetMapping("/specializations/{specialization}")
+    public ResponseEntity<Page<DoctorSummaryDto>> getDoctorsBySpecialization(
+            @PathVariable String specialization,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(doctorDirectoryService.findBySpecialization(specialization, pageable));
+    }
+
+    @GetMapping("/top-rated")
+    public ResponseEntity<Page<DoctorSummaryDto>> getTopRatedDoctors(@PageableDefault(size = 10) Pageable pageable) {
+        return ResponseEntity.ok(doctorRatingService.getTopRatedDoctors(pageable));
+    }
+
+    @PostMapping("/{doctorId}/ratings")
+    public ResponseEntity<Void> submitRating(
+            @PathVariable Long doctorId,
+            @Valid @RequestBody SubmitRatingRequest request) {
+        if (!doctorRatingService.submitRating(doctorId, request.getRating())) {
+            // One rating per patient per doctor
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
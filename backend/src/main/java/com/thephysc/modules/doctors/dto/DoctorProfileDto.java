@@ -0,0 +1,78 @@
+package com.thephysc.modules.doctors.dto;
+
+import com.thephysc.core.entities.Doctor;
+import com.thephysc.core.entities.User;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable full profile of a doctor, including the education and certification collections.
+ * Safe to share from a cache.
+ */
+@Value
+@Builder
+public class DoctorProfileDto {
+
+    Long id;
+    Long userId;
+    String firstName;
+    String lastName;
+    String email;
+    String profileImage;
+    String specialty;
+    String license;
+    Integer yearsOfExperience;
+    String bio;
+    Double consultationFee;
+    Double averageRating;
+    Integer ratingCount;
+    Set<String> specializations;
+    List<EducationDto> education;
+    List<CertificationDto> certifications;
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+
+    public static DoctorProfileDto fromEntity(Doctor doctor,
+                                              Set<String> specializations,
+                                              List<EducationDto> education,
+                                              List<CertificationDto> certifications) {
+        User user = doctor.getUser();
+        return DoctorProfileDto.builder()
+                .id(doctor.getId())
+                .userId(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .profileImage(user.getProfileImage())
+                .specialty(doctor.getSpecialty())
+                .license(doctor.getLicense())
+                .yearsOfExperience(doctor.getYearsOfExperience())
+                .bio(doctor.getBio())
+                .consultationFee(doctor.getConsultationFee())
+                .averageRating(doctor.getAverageRating())
+                .ratingCount(doctor.getRatingCount())
+                .specializations(specializations != null ? Set.copyOf(specializations) : Set.of())
+                .education(education != null ? List.copyOf(education) : List.of())
+                .certifications(certifications != null ? List.copyOf(certifications) : List.of())
+                .build();
+    }
+
+    @Value
+    public static class EducationDto {
+        String degree;
+        String institution;
+        Integer year;
+    }
+
+    @Value
+    public static class CertificationDto {
+        String name;
+        String issuingAuthority;
+        Integer year;
+    }
+}
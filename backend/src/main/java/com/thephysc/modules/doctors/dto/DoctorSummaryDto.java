@@ -0,0 +1,52 @@
+package com.thephysc.modules.doctors.dto;
+
+import com.thephysc.core.entities.Doctor;
+import com.thephysc.core.entities.User;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Lightweight, immutable view of a doctor used by listing and search pages.
+ * Instances are shared between threads by the in-memory doctor indexes.
+ */
+@Value
+@Builder(toBuilder = true)
+public class DoctorSummaryDto {
+
+    Long id;
+    Long userId;
+    String firstName;
+    String lastName;
+    String profileImage;
+    String specialty;
+    Set<String> specializations;
+    Integer yearsOfExperience;
+    Double consultationFee;
+    Double averageRating;
+    Integer ratingCount;
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+
+    // Convert from entity; specializations are passed separately so callers can batch-load them
+    public static DoctorSummaryDto fromEntity(Doctor doctor, Collection<String> specializations) {
+        User user = doctor.getUser();
+        return DoctorSummaryDto.builder()
+                .id(doctor.getId())
+                .userId(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .profileImage(user.getProfileImage())
+                .specialty(doctor.getSpecialty())
+                .specializations(specializations != null ? Set.copyOf(specializations) : Set.of())
+                .yearsOfExperience(doctor.getYearsOfExperience())
+                .consultationFee(doctor.getConsultationFee())
+                .averageRating(doctor.getAverageRating())
+                .ratingCount(doctor.getRatingCount())
+                .build();
+    }
+}
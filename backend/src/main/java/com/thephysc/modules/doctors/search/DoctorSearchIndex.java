@@ -0,0 +1,290 @@
+package com.thephysc.modules.doctors.search;
+
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over doctor names, specialty and specializations.
+ * <p>
+ * Every query term is matched exactly, as a prefix of an indexed term and, for longer terms,
+ * fuzzily (edit distance 1 or 2) using a trigram index over the vocabulary. All query terms must
+ * match; hits are ranked by the sum of field weight times match quality, then by rating.
+ * The index is updated one doctor at a time, so profile changes never require a full rebuild.
+ */
+@Component
+public class DoctorSearchIndex {
+
+    private static final float LAST_NAME_WEIGHT = 3.0f;
+    private static final float FIRST_NAME_WEIGHT = 2.5f;
+    private static final float SPECIALTY_WEIGHT = 2.0f;
+    private static final float SPECIALIZATION_WEIGHT = 1.5f;
+
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float ONE_EDIT_MATCH = 0.4f;
+    private static final float TWO_EDIT_MATCH = 0.25f;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 512;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // doctorId -> indexed summary
+    private Map<Long, DoctorSummaryDto> documents = new HashMap<>();
+    // term -> (doctorId -> best field weight of that term in the document)
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    // trigram -> terms of the vocabulary containing it
+    private Map<String, Set<String>> trigramIndex = new HashMap<>();
+
+    /**
+     * Replaces the whole index, e.g. on startup.
+     */
+    public void replaceAll(Collection<DoctorSummaryDto> doctors) {
+        Map<Long, DoctorSummaryDto> newDocuments = new HashMap<>();
+        NavigableMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<String, Set<String>> newTrigrams = new HashMap<>();
+        for (DoctorSummaryDto doctor : doctors) {
+            newDocuments.put(doctor.getId(), doctor);
+            addTerms(doctor, newPostings, newTrigrams);
+        }
+
+        lock.writeLock().lock();
+        try {
+            documents = newDocuments;
+            postings = newPostings;
+            trigramIndex = newTrigrams;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(DoctorSummaryDto doctor) {
+        lock.writeLock().lock();
+        try {
+            DoctorSummaryDto previous = documents.put(doctor.getId(), doctor);
+            if (previous != null) {
+                removeTerms(previous);
+            }
+            addTerms(doctor, postings, trigramIndex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long doctorId) {
+        lock.writeLock().lock();
+        try {
+            DoctorSummaryDto previous = documents.remove(doctorId);
+            if (previous != null) {
+                removeTerms(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new SearchResult(List.of(), 0);
+                }
+            }
+            return new SearchResult(topHits(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> tokenScores = new HashMap<>();
+        Set<String> matchedTerms = new HashSet<>();
+
+        // Exact and prefix matches come straight from the sorted term dictionary
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Float>> entry
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            String term = entry.getKey();
+            float quality = term.length() == token.length()
+                    ? EXACT_MATCH
+                    : 0.5f + 0.4f * token.length() / term.length();
+            accumulate(tokenScores, entry.getValue(), quality);
+            matchedTerms.add(term);
+            if (++expansions >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+
+        // Typo tolerance for longer terms
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            for (String candidate : fuzzyCandidates(token, maxEdits)) {
+                if (matchedTerms.contains(candidate)) {
+                    continue;
+                }
+                int distance = SearchTokenizer.boundedEditDistance(token, candidate, maxEdits);
+                if (distance <= maxEdits) {
+                    accumulate(tokenScores, postings.get(candidate), distance == 1 ? ONE_EDIT_MATCH : TWO_EDIT_MATCH);
+                }
+            }
+        }
+        return tokenScores;
+    }
+
+    private Set<String> fuzzyCandidates(String token, int maxEdits) {
+        Set<String> grams = SearchTokenizer.trigrams(token);
+        // Each edit destroys at most three trigrams
+        int required = Math.max(1, grams.size() - 3 * maxEdits);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String term : trigramIndex.getOrDefault(gram, Collections.emptySet())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+        Set<String> candidates = new HashSet<>();
+        shared.forEach((term, count) -> {
+            if (count >= required) {
+                candidates.add(term);
+            }
+        });
+        return candidates;
+    }
+
+    private static void accumulate(Map<Long, Float> tokenScores, Map<Long, Float> posting, float quality) {
+        if (posting == null) {
+            return;
+        }
+        posting.forEach((doctorId, fieldWeight) -> tokenScores.merge(doctorId, fieldWeight * quality, Math::max));
+    }
+
+    private List<SearchHit> topHits(Map<Long, Float> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        Comparator<SearchHit> ranking = Comparator.comparingDouble(SearchHit::getScore)
+                .thenComparing(hit -> hit.getDoctor().getAverageRating(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(hit -> hit.getDoctor().getId(), Comparator.reverseOrder());
+
+        // Min-heap of the best offset + limit hits, so large result sets are never fully sorted
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(Math.min(wanted, scores.size()) + 1, ranking);
+        scores.forEach((doctorId, score) -> {
+            heap.offer(new SearchHit(documents.get(doctorId), score));
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        });
+
+        List<SearchHit> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking.reversed());
+        if (offset >= ranked.size()) {
+            return List.of();
+        }
+        return List.copyOf(ranked.subList(offset, ranked.size()));
+    }
+
+    private void addTerms(DoctorSummaryDto doctor,
+                          NavigableMap<String, Map<Long, Float>> targetPostings,
+                          Map<String, Set<String>> targetTrigrams) {
+        termsOf(doctor).forEach((term, weight) -> {
+            Map<Long, Float> posting = targetPostings.get(term);
+            if (posting == null) {
+                posting = new HashMap<>();
+                targetPostings.put(term, posting);
+                for (String gram : SearchTokenizer.trigrams(term)) {
+                    targetTrigrams.computeIfAbsent(gram, k -> new HashSet<>()).add(term);
+                }
+            }
+            posting.put(doctor.getId(), weight);
+        });
+    }
+
+    private void removeTerms(DoctorSummaryDto doctor) {
+        for (String term : termsOf(doctor).keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(doctor.getId());
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                for (String gram : SearchTokenizer.trigrams(term)) {
+                    Set<String> terms = trigramIndex.get(gram);
+                    if (terms != null) {
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            trigramIndex.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Map<String, Float> termsOf(DoctorSummaryDto doctor) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, doctor.getLastName(), LAST_NAME_WEIGHT);
+        addField(terms, doctor.getFirstName(), FIRST_NAME_WEIGHT);
+        addField(terms, doctor.getSpecialty(), SPECIALTY_WEIGHT);
+        if (doctor.getSpecializations() != null) {
+            for (String specialization : doctor.getSpecializations()) {
+                addField(terms, specialization, SPECIALIZATION_WEIGHT);
+            }
+        }
+        return terms;
+    }
+
+    private static void addField(Map<String, Float> terms, String value, float weight) {
+        for (String term : SearchTokenizer.tokenize(value)) {
+            terms.merge(term, weight, Math::max);
+        }
+    }
+
+    @Value
+    public static class SearchHit {
+        DoctorSummaryDto doctor;
+        float score;
+    }
+
+    @Value
+    public static class SearchResult {
+        List<SearchHit> hits;
+        int totalHits;
+    }
+}
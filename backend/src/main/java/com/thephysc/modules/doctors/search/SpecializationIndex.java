@@ -0,0 +1,151 @@
+package com.thephysc.modules.doctors.search;
+
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Read-mostly index from specialization to the ids of the doctors offering it.
+ * <p>
+ * Each specialization maps to a sorted {@code long[]}; readers see an immutable snapshot through a
+ * volatile reference and writers publish a new snapshot (copy-on-write), so lookups never lock.
+ * Keys are matched case-insensitively.
+ */
+@Component
+public class SpecializationIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    public long[] findDoctorIds(String specialization) {
+        long[] ids = snapshot.doctorIds.get(normalize(specialization));
+        return ids != null ? ids.clone() : EMPTY;
+    }
+
+    public int countDoctors(String specialization) {
+        long[] ids = snapshot.doctorIds.get(normalize(specialization));
+        return ids != null ? ids.length : 0;
+    }
+
+    /**
+     * Specialization display names with their doctor counts, sorted by name.
+     */
+    public Map<String, Integer> getSpecializationCounts() {
+        Snapshot current = snapshot;
+        Map<String, Integer> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        current.displayNames.forEach((key, name) -> counts.put(name, current.doctorIds.get(key).length));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public synchronized void replaceAll(Collection<DoctorSummaryDto> doctors) {
+        Map<String, long[]> ids = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        for (DoctorSummaryDto doctor : doctors) {
+            for (String specialization : doctor.getSpecializations()) {
+                String key = normalize(specialization);
+                names.putIfAbsent(key, specialization.trim());
+                long[] bucket = ids.get(key);
+                int size = sizes.getOrDefault(key, 0);
+                if (bucket == null || bucket.length == size) {
+                    bucket = bucket == null ? new long[8] : Arrays.copyOf(bucket, size * 2);
+                    ids.put(key, bucket);
+                }
+                bucket[size] = doctor.getId();
+                sizes.put(key, size + 1);
+            }
+        }
+        ids.replaceAll((key, bucket) -> {
+            long[] trimmed = Arrays.copyOf(bucket, sizes.get(key));
+            Arrays.sort(trimmed);
+            return trimmed;
+        });
+        snapshot = new Snapshot(ids, names);
+    }
+
+    /**
+     * Moves a doctor from the specializations in {@code previous} to those in {@code current}.
+     * Either argument may be {@code null} for inserts and deletes.
+     */
+    public synchronized void update(DoctorSummaryDto previous, DoctorSummaryDto current) {
+        Set<String> before = previous != null ? previous.getSpecializations() : Set.of();
+        Set<String> after = current != null ? current.getSpecializations() : Set.of();
+        Long doctorId = current != null ? current.getId() : previous != null ? previous.getId() : null;
+        if (doctorId == null || before.equals(after)) {
+            return;
+        }
+
+        Snapshot old = snapshot;
+        Map<String, long[]> ids = new HashMap<>(old.doctorIds);
+        Map<String, String> names = new HashMap<>(old.displayNames);
+        for (String specialization : before) {
+            String key = normalize(specialization);
+            long[] remaining = without(ids.get(key), doctorId);
+            if (remaining.length == 0) {
+                ids.remove(key);
+                names.remove(key);
+            } else {
+                ids.put(key, remaining);
+            }
+        }
+        for (String specialization : after) {
+            String key = normalize(specialization);
+            ids.put(key, with(ids.get(key), doctorId));
+            names.putIfAbsent(key, specialization.trim());
+        }
+        snapshot = new Snapshot(ids, names);
+    }
+
+    private static long[] with(long[] ids, long doctorId) {
+        if (ids == null) {
+            return new long[]{doctorId};
+        }
+        int position = Arrays.binarySearch(ids, doctorId);
+        if (position >= 0) {
+            return ids;
+        }
+        int insertAt = -position - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = doctorId;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+
+    private static long[] without(long[] ids, long doctorId) {
+        if (ids == null) {
+            return EMPTY;
+        }
+        int position = Arrays.binarySearch(ids, doctorId);
+        if (position < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+
+    private static String normalize(String specialization) {
+        return specialization == null ? "" : specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        private final Map<String, long[]> doctorIds;
+        private final Map<String, String> displayNames;
+
+        private Snapshot(Map<String, long[]> doctorIds, Map<String, String> displayNames) {
+            this.doctorIds = doctorIds;
+            this.displayNames = displayNames;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.thephysc.modules.doctors.services;
+
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import com.thephysc.modules.doctors.search.SpecializationIndex;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Specialty browse pages served entirely from memory. Replaces
+ * {@code DoctorRepository.findBySpecialization} on the hot path.
+ */
+@Service
+public class DoctorDirectoryService {
+
+    private final SpecializationIndex specializationIndex;
+    private final DoctorSummaryCache summaryCache;
+
+    public DoctorDirectoryService(SpecializationIndex specializationIndex, DoctorSummaryCache summaryCache) {
+        this.specializationIndex = specializationIndex;
+        this.summaryCache = summaryCache;
+    }
+
+    public Page<DoctorSummaryDto> findBySpecialization(String specialization, Pageable pageable) {
+        long[] doctorIds = specializationIndex.findDoctorIds(specialization);
+        int from = (int) Math.min(pageable.getOffset(), doctorIds.length);
+        int to = Math.min(from + pageable.getPageSize(), doctorIds.length);
+
+        List<DoctorSummaryDto> doctors = summaryCache.getAll(doctorIds, from, to);
+        return new PageImpl<>(doctors, pageable, doctorIds.length);
+    }
+
+    public Map<String, Integer> getSpecializations() {
+        return specializationIndex.getSpecializationCounts();
+    }
+}
@@ -0,0 +1,105 @@
+package com.thephysc.modules.doctors.services;
+
+import com.thephysc.core.entities.Doctor;
+import com.thephysc.core.events.DoctorChangedEvent;
+import com.thephysc.core.repositories.DoctorRepository;
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import com.thephysc.modules.doctors.search.DoctorSearchIndex;
+import com.thephysc.modules.doctors.search.SpecializationIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the in-memory doctor read models (summary cache, search, specialization and top-rated indexes)
+ * in step with the database: a bulk load on startup, then one doctor at a time from
+ * {@link DoctorChangedEvent}s once the writing transaction has committed.
+ */
+@Slf4j
+@Service
+public class DoctorIndexMaintainer {
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorSummaryCache summaryCache;
+    private final DoctorSearchIndex searchIndex;
+    private final SpecializationIndex specializationIndex;
+    private final TopRatedDoctorsCache topRatedCache;
+
+    public DoctorIndexMaintainer(
+            DoctorRepository doctorRepository,
+            DoctorSummaryCache summaryCache,
+            DoctorSearchIndex searchIndex,
+            SpecializationIndex specializationIndex,
+            TopRatedDoctorsCache topRatedCache) {
+        this.doctorRepository = doctorRepository;
+        this.summaryCache = summaryCache;
+        this.searchIndex = searchIndex;
+        this.specializationIndex = specializationIndex;
+        this.topRatedCache = topRatedCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+
+        Map<Long, Set<String>> specializations = new HashMap<>();
+        for (DoctorRepository.SpecializationRow row : doctorRepository.findAllSpecializationRows()) {
+            specializations.computeIfAbsent(row.getDoctorId(), k -> new HashSet<>()).add(row.getSpecialization());
+        }
+
+        List<DoctorSummaryDto> summaries = new ArrayList<>();
+        for (Doctor doctor : doctorRepository.findAllWithUser()) {
+            summaries.add(DoctorSummaryDto.fromEntity(doctor, specializations.get(doctor.getId())));
+        }
+
+        synchronized (this) {
+            summaryCache.replaceAll(summaries);
+            searchIndex.replaceAll(summaries);
+            specializationIndex.replaceAll(summaries);
+        }
+        topRatedCache.markStale();
+
+        log.info("Loaded {} doctors into the in-memory indexes in {} ms",
+                summaries.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.getChangeType() == DoctorChangedEvent.ChangeType.DELETED) {
+            remove(event.getDoctorId());
+            return;
+        }
+
+        doctorRepository.findWithUserAndSpecializationsById(event.getDoctorId())
+                .map(doctor -> DoctorSummaryDto.fromEntity(doctor, doctor.getSpecializations()))
+                .ifPresentOrElse(this::apply, () -> remove(event.getDoctorId()));
+    }
+
+    /**
+     * Publishes a new summary for a doctor to every index.
+     */
+    public synchronized void apply(DoctorSummaryDto summary) {
+        DoctorSummaryDto previous = summaryCache.put(summary);
+        searchIndex.upsert(summary);
+        specializationIndex.update(previous, summary);
+        topRatedCache.markStale();
+    }
+
+    private synchronized void remove(Long doctorId) {
+        DoctorSummaryDto previous = summaryCache.remove(doctorId);
+        searchIndex.remove(doctorId);
+        specializationIndex.update(previous, null);
+        topRatedCache.markStale();
+    }
+}
@@ -0,0 +1,136 @@
+package com.thephysc.modules.doctors.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thephysc.core.entities.Doctor;
+import com.thephysc.core.events.DoctorChangedEvent;
+import com.thephysc.core.repositories.DoctorRepository;
+import com.thephysc.modules.doctors.dto.DoctorProfileDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read model for full doctor profiles.
+ * <p>
+ * Loading {@link Doctor} entities one by one costs a query per lazy collection per doctor. Here a
+ * page of profiles costs at most six queries no matter how many doctors it contains: the page of
+ * ids and its count, doctors with their users, then one {@code IN} query each for specializations,
+ * education and certifications. The count is skipped when the page itself shows the total, and
+ * cached profiles skip the last four. Built profiles are kept in a bounded cache and evicted when
+ * the doctor changes. An eviction that lands while profiles are being built may have come after
+ * the build read the doctor, so the profiles that build caches are dropped again rather than
+ * left to serve the old data until they expire.
+ */
+@Service
+public class DoctorProfileService {
+
+    private final DoctorRepository doctorRepository;
+    private final Cache<Long, DoctorProfileDto> profileCache;
+    // Bumped before every eviction, so a build can tell whether one happened while it ran
+    private final AtomicLong evictions = new AtomicLong();
+
+    public DoctorProfileService(
+            DoctorRepository doctorRepository,
+            @Value("${doctors.profiles.cache-size:10000}") long cacheSize,
+            @Value("${doctors.profiles.cache-ttl-minutes:30}") long cacheTtlMinutes) {
+        this.doctorRepository = doctorRepository;
+        this.profileCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public DoctorProfileDto getProfile(Long doctorId) {
+        DoctorProfileDto profile = loadProfiles(List.of(doctorId)).get(doctorId);
+        if (profile == null) {
+            throw new EntityNotFoundException("Doctor not found");
+        }
+        return profile;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<DoctorProfileDto> getProfiles(Pageable pageable) {
+        Page<Long> ids = doctorRepository.findPageOfIds(pageable);
+        Map<Long, DoctorProfileDto> profiles = loadProfiles(ids.getContent());
+
+        List<DoctorProfileDto> ordered = new ArrayList<>(ids.getNumberOfElements());
+        for (Long id : ids) {
+            DoctorProfileDto profile = profiles.get(id);
+            if (profile != null) {
+                ordered.add(profile);
+            }
+        }
+        return new PageImpl<>(ordered, pageable, ids.getTotalElements());
+    }
+
+    public void evict(Collection<Long> doctorIds) {
+        evictions.incrementAndGet();
+        profileCache.invalidateAll(doctorIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        evictions.incrementAndGet();
+        profileCache.invalidate(event.getDoctorId());
+    }
+
+    private Map<Long, DoctorProfileDto> loadProfiles(Collection<Long> doctorIds) {
+        long evictionsBefore = evictions.get();
+        Map<Long, DoctorProfileDto> profiles = new HashMap<>(profileCache.getAllPresent(doctorIds));
+        Set<Long> missing = new HashSet<>(doctorIds);
+        missing.removeAll(profiles.keySet());
+        if (missing.isEmpty()) {
+            return profiles;
+        }
+
+        Map<Long, Set<String>> specializations = new HashMap<>();
+        for (DoctorRepository.SpecializationRow row : doctorRepository.findSpecializationRowsByDoctorIdIn(missing)) {
+            specializations.computeIfAbsent(row.getDoctorId(), k -> new HashSet<>()).add(row.getSpecialization());
+        }
+
+        Map<Long, List<DoctorProfileDto.EducationDto>> education = new HashMap<>();
+        for (DoctorRepository.EducationRow row : doctorRepository.findEducationRowsByDoctorIdIn(missing)) {
+            education.computeIfAbsent(row.getDoctorId(), k -> new ArrayList<>()).add(
+                    new DoctorProfileDto.EducationDto(row.getDegree(), row.getInstitution(), row.getYear()));
+        }
+
+        Map<Long, List<DoctorProfileDto.CertificationDto>> certifications = new HashMap<>();
+        for (DoctorRepository.CertificationRow row : doctorRepository.findCertificationRowsByDoctorIdIn(missing)) {
+            certifications.computeIfAbsent(row.getDoctorId(), k -> new ArrayList<>()).add(
+                    new DoctorProfileDto.CertificationDto(row.getName(), row.getIssuingAuthority(), row.getYear()));
+        }
+
+        Map<Long, DoctorProfileDto> built = new HashMap<>();
+        for (Doctor doctor : doctorRepository.findAllWithUserByIdIn(missing)) {
+            built.put(doctor.getId(), DoctorProfileDto.fromEntity(
+                    doctor,
+                    specializations.get(doctor.getId()),
+                    education.get(doctor.getId()),
+                    certifications.get(doctor.getId())));
+        }
+        profileCache.putAll(built);
+        // Checked after the put: an eviction counted later also invalidates after the put
+        if (evictions.get() != evictionsBefore) {
+            profileCache.invalidateAll(built.keySet());
+        }
+        profiles.putAll(built);
+        return profiles;
+    }
+}
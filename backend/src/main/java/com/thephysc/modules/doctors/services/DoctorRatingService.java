@@ -0,0 +1,194 @@
+package com.thephysc.modules.doctors.services;
+
+import com.thephysc.core.entities.Appointment;
+import com.thephysc.core.entities.Doctor;
+import com.thephysc.core.entities.DoctorRating;
+import com.thephysc.core.repositories.DoctorRatingRepository;
+import com.thephysc.core.repositories.DoctorRepository;
+import com.thephysc.core.repositories.PatientRepository;
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rating ingestion that keeps the doctors table off the request path.
+ * <p>
+ * Only a patient with a completed appointment with the doctor may rate, once. A submission is one
+ * query checking that and one {@code INSERT} of a {@link DoctorRating} row, whose unique key on
+ * doctor and patient settles repeat and concurrent submissions from the same patient. A scheduled
+ * flush reads the rows not yet applied to the doctors table, applies their combined delta with one
+ * {@code UPDATE} per doctor and marks them applied in the same transaction, so a crash can neither
+ * lose a rating from the averages nor count it twice. When several nodes flush the same rows, all
+ * but the first find them already marked and roll back.
+ */
+@Slf4j
+@Service
+public class DoctorRatingService {
+
+    private static final int RELOAD_CHUNK_SIZE = 500;
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorRatingRepository doctorRatingRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorSummaryCache summaryCache;
+    private final DoctorIndexMaintainer indexMaintainer;
+    private final TopRatedDoctorsCache topRatedCache;
+    private final DoctorProfileService profileService;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushChunkSize;
+
+    public DoctorRatingService(
+            DoctorRepository doctorRepository,
+            DoctorRatingRepository doctorRatingRepository,
+            PatientRepository patientRepository,
+            DoctorSummaryCache summaryCache,
+            DoctorIndexMaintainer indexMaintainer,
+            TopRatedDoctorsCache topRatedCache,
+            DoctorProfileService profileService,
+            TransactionTemplate transactionTemplate,
+            @Value("${doctors.ratings.flush-chunk-size:500}") int flushChunkSize) {
+        this.doctorRepository = doctorRepository;
+        this.doctorRatingRepository = doctorRatingRepository;
+        this.patientRepository = patientRepository;
+        this.summaryCache = summaryCache;
+        this.indexMaintainer = indexMaintainer;
+        this.topRatedCache = topRatedCache;
+        this.profileService = profileService;
+        this.transactionTemplate = transactionTemplate;
+        this.flushChunkSize = flushChunkSize;
+    }
+
+    /**
+     * Records the current patient's rating of a doctor.
+     *
+     * @return false if the patient has already rated this doctor
+     */
+    public boolean submitRating(Long doctorId, int rating) {
+        if (summaryCache.get(doctorId).isEmpty()) {
+            throw new EntityNotFoundException("Doctor not found");
+        }
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        PatientRepository.VisitCountRow visits = patientRepository.countVisitsByEmail(
+                        email, doctorId, Appointment.AppointmentStatus.COMPLETED)
+                .orElseThrow(() -> new AccessDeniedException("Only patients can rate doctors"));
+        if (visits.getCompletedVisits() == 0) {
+            throw new AccessDeniedException("Only patients with a completed appointment can rate this doctor");
+        }
+        try {
+            doctorRatingRepository.saveAndFlush(DoctorRating.builder()
+                    .doctor(doctorRepository.getReferenceById(doctorId))
+                    .patient(patientRepository.getReferenceById(visits.getPatientId()))
+                    .rating(rating)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // The patient has already rated this doctor, perhaps in a concurrent submission
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${doctors.ratings.flush-interval-ms:5000}")
+    public void flushPendingRatings() {
+        Set<Long> flushed = new HashSet<>();
+        int applied;
+        do {
+            try {
+                Integer chunk = transactionTemplate.execute(status -> applyChunk(status, flushed));
+                applied = chunk != null ? chunk : 0;
+            } catch (Exception e) {
+                // The rows stay unapplied and are retried on the next flush
+                log.error("Failed to flush pending ratings: {}", e.getMessage());
+                break;
+            }
+        } while (applied == flushChunkSize);
+
+        if (!flushed.isEmpty()) {
+            List<Long> doctorIds = new ArrayList<>(flushed);
+            // Native updates publish no DoctorChangedEvent, so read models are refreshed here
+            profileService.evict(doctorIds);
+            refreshSummaries(doctorIds);
+            log.debug("Flushed pending ratings for {} doctors", doctorIds.size());
+        }
+    }
+
+    public Page<DoctorSummaryDto> getTopRatedDoctors(Pageable pageable) {
+        List<DoctorSummaryDto> topRated = topRatedCache.getTopRated();
+        long end = pageable.getOffset() + pageable.getPageSize();
+        if (end <= topRated.size() || topRated.size() < topRatedCache.getCapacity()) {
+            int from = (int) Math.min(pageable.getOffset(), topRated.size());
+            int to = (int) Math.min(end, topRated.size());
+            return new PageImpl<>(topRated.subList(from, to), pageable, summaryCache.values().size());
+        }
+
+        // Deep pages beyond the cached top K fall back to the database ordering
+        Page<Doctor> doctors = doctorRepository.findTopRatedDoctors(pageable);
+        List<DoctorSummaryDto> summaries = new ArrayList<>();
+        for (Doctor doctor : doctors) {
+            summaryCache.get(doctor.getId()).ifPresent(summaries::add);
+        }
+        return new PageImpl<>(summaries, pageable, doctors.getTotalElements());
+    }
+
+    /**
+     * Applies one chunk of unapplied ratings to the doctors table and marks them applied.
+     *
+     * @return the number of ratings applied
+     */
+    private int applyChunk(TransactionStatus status, Set<Long> flushedDoctorIds) {
+        List<DoctorRatingRepository.UnappliedRow> rows =
+                doctorRatingRepository.findUnapplied(PageRequest.of(0, flushChunkSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        Map<Long, long[]> deltas = new HashMap<>(); // doctor id -> count, sum
+        for (DoctorRatingRepository.UnappliedRow row : rows) {
+            ids.add(row.getId());
+            long[] delta = deltas.computeIfAbsent(row.getDoctorId(), k -> new long[2]);
+            delta[0]++;
+            delta[1] += row.getRating();
+        }
+        // Marking first locks the rows, so a concurrent flush of the same rows waits and then sees them marked
+        if (doctorRatingRepository.markApplied(ids) != ids.size()) {
+            // Another node is flushing the same ratings; what is left is picked up next time
+            status.setRollbackOnly();
+            log.debug("Ratings in this chunk were applied by a concurrent flush");
+            return 0;
+        }
+        deltas.forEach((doctorId, delta) -> doctorRepository.applyRatingDelta(doctorId, delta[0], delta[1]));
+        flushedDoctorIds.addAll(deltas.keySet());
+        return rows.size();
+    }
+
+    private void refreshSummaries(List<Long> doctorIds) {
+        for (int i = 0; i < doctorIds.size(); i += RELOAD_CHUNK_SIZE) {
+            List<Long> chunk = doctorIds.subList(i, Math.min(i + RELOAD_CHUNK_SIZE, doctorIds.size()));
+            for (DoctorRepository.RatingRow row : doctorRepository.findRatingsByIdIn(chunk)) {
+                summaryCache.get(row.getDoctorId()).ifPresent(summary -> indexMaintainer.apply(summary.toBuilder()
+                        .averageRating(row.getAverageRating())
+                        .ratingCount(row.getRatingCount())
+                        .build()));
+            }
+        }
+        topRatedCache.markStale();
+    }
+}
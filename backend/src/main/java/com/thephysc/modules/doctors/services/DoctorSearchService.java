@@ -0,0 +1,36 @@
+package com.thephysc.modules.doctors.services;
+
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import com.thephysc.modules.doctors.search.DoctorSearchIndex;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Doctor search backed by {@link DoctorSearchIndex} instead of {@code LIKE '%term%'} scans.
+ * The index itself is maintained by {@link DoctorIndexMaintainer}.
+ */
+@Service
+public class DoctorSearchService {
+
+    private final DoctorSearchIndex searchIndex;
+
+    public DoctorSearchService(DoctorSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    public Page<DoctorSummaryDto> searchDoctors(String query, Pageable pageable) {
+        DoctorSearchIndex.SearchResult result = searchIndex.search(
+                query, (int) pageable.getOffset(), pageable.getPageSize());
+
+        List<DoctorSummaryDto> doctors = result.getHits().stream()
+                .map(DoctorSearchIndex.SearchHit::getDoctor)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(doctors, pageable, result.getTotalHits());
+    }
+}
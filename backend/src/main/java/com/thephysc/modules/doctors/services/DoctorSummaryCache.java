@@ -0,0 +1,62 @@
+package com.thephysc.modules.doctors.services;
+
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds a {@link DoctorSummaryDto} for every doctor so listing pages can be rendered without
+ * loading entities. Kept current by {@link DoctorIndexMaintainer}.
+ */
+@Component
+public class DoctorSummaryCache {
+
+    private final Map<Long, DoctorSummaryDto> summaries = new ConcurrentHashMap<>();
+
+    public Optional<DoctorSummaryDto> get(Long doctorId) {
+        return Optional.ofNullable(summaries.get(doctorId));
+    }
+
+    /**
+     * Resolves ids in the given order, skipping doctors that are no longer cached.
+     */
+    public List<DoctorSummaryDto> getAll(long[] doctorIds, int from, int to) {
+        List<DoctorSummaryDto> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            DoctorSummaryDto summary = summaries.get(doctorIds[i]);
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    public Collection<DoctorSummaryDto> values() {
+        return summaries.values();
+    }
+
+    public DoctorSummaryDto put(DoctorSummaryDto summary) {
+        return summaries.put(summary.getId(), summary);
+    }
+
+    public DoctorSummaryDto remove(Long doctorId) {
+        return summaries.remove(doctorId);
+    }
+
+    public void replaceAll(Collection<DoctorSummaryDto> all) {
+        Set<Long> ids = new HashSet<>();
+        for (DoctorSummaryDto summary : all) {
+            summaries.put(summary.getId(), summary);
+            ids.add(summary.getId());
+        }
+        summaries.keySet().retainAll(ids);
+    }
+}
@@ -0,0 +1,72 @@
+package com.thephysc.modules.doctors.services;
+
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Cached top-K list of doctors by rating, computed with a bounded min-heap over
+ * {@link DoctorSummaryCache}. The list is rebuilt lazily after ratings or profiles change.
+ */
+@Component
+public class TopRatedDoctorsCache {
+
+    // Best first: highest rating, then most ratings, then oldest profile
+    private static final Comparator<DoctorSummaryDto> RANKING = Comparator
+            .comparing(DoctorSummaryDto::getAverageRating, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(DoctorSummaryDto::getRatingCount, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(DoctorSummaryDto::getId);
+
+    private final DoctorSummaryCache summaryCache;
+    private final int capacity;
+
+    private volatile List<DoctorSummaryDto> topRated = List.of();
+    private volatile boolean stale = true;
+
+    public TopRatedDoctorsCache(
+            DoctorSummaryCache summaryCache,
+            @Value("${doctors.ratings.top-k:100}") int capacity) {
+        this.summaryCache = summaryCache;
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void markStale() {
+        stale = true;
+    }
+
+    public List<DoctorSummaryDto> getTopRated() {
+        if (stale) {
+            rebuild();
+        }
+        return topRated;
+    }
+
+    private synchronized void rebuild() {
+        if (!stale) {
+            return;
+        }
+        stale = false;
+
+        // The head of the heap is the worst of the current best K
+        PriorityQueue<DoctorSummaryDto> heap = new PriorityQueue<>(capacity + 1, RANKING.reversed());
+        for (DoctorSummaryDto summary : summaryCache.values()) {
+            heap.offer(summary);
+            if (heap.size() > capacity) {
+                heap.poll();
+            }
+        }
+
+        List<DoctorSummaryDto> ranked = new ArrayList<>(heap);
+        ranked.sort(RANKING);
+        topRated = List.copyOf(ranked);
+    }
+}
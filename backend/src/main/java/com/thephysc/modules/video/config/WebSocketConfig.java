@@ -1,26 +0,0 @@
-package com.thephysc.modules.video.config;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.lang.NonNull;
-import org.springframework.web.socket.config.annotation.EnableWebSocket;
-import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
-import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
-
-import com.thephysc.modules.video.websocket.SignalingWebSocketHandler;
-
-@Configuration
-@EnableWebSocket
-public class WebSocketConfig implements WebSocketConfigurer {
-
-    private final SignalingWebSocketHandler signalingHandler;
-
-    public WebSocketConfig(SignalingWebSocketHandler signalingHandler) {
-        this.signalingHandler = signalingHandler;
-    }
-
-    @Override
-    public void registerWebSocketHandlers(@NonNull WebSocketHandlerRegistry registry) {
-        registry.addHandler(signalingHandler, "/api/ws/rtc")
-                .setAllowedOrigins("*"); // In production, specify allowed origins
-    }
-}
@@ -1,11 +1,13 @@
 package com.thephysc.modules.video.controllers;
 
-import com.thephysc.core.entities.MeetingMessage;
 import com.thephysc.core.entities.MeetingParticipant;
+import com.thephysc.core.entities.MeetingRoom;
 import com.thephysc.modules.video.dto.CreateMeetingRoomRequest;
 import com.thephysc.modules.video.dto.JoinMeetingRequest;
+import com.thephysc.modules.video.dto.MeetingMessagePage;
 import com.thephysc.modules.video.dto.MeetingRoomResponse;
 import com.thephysc.modules.video.services.MeetingRoomService;
+import com.thephysc.modules.video.signaling.SignalingCluster;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,14 +15,22 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.camunda.bpm.engine.runtime.ActivityInstance;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -30,6 +40,7 @@ import java.util.Map;
 public class MeetingRoomController {
 
     private final MeetingRoomService meetingRoomService;
+    private final SignalingCluster signalingCluster;
 
     @PostMapping("/create")
     @Operation(summary = "Create a new meeting room", description = "Creates a new video meeting room with specified configuration")
@@ -125,6 +136,29 @@ public class MeetingRoomController {
         }
     }
 
+    @GetMapping("/paged")
+    @Operation(summary = "List meeting rooms",
+            description = "Retrieves one page of meeting rooms with their connected participant counts, optionally filtered by status")
+    public ResponseEntity<?> listMeetingRooms(
+            @Parameter(description = "Room status") @RequestParam(required = false) MeetingRoom.RoomStatus status,
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+        try {
+            Page<MeetingRoomResponse> rooms = meetingRoomService.listMeetingRooms(status, pageable);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "data", rooms.getContent(),
+                    "count", rooms.getNumberOfElements(),
+                    "page", rooms.getNumber(),
+                    "totalElements", rooms.getTotalElements(),
+                    "totalPages", rooms.getTotalPages()));
+        } catch (Exception e) {
+            log.error("Error listing meeting rooms: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/active")
     @Operation(summary = "Get active meeting rooms", description = "Retrieves all currently active meeting rooms")
     public ResponseEntity<?> getActiveMeetingRooms() {
@@ -142,18 +176,26 @@ public class MeetingRoomController {
         }
     }
 
+    // Joins and leaves are decided by the presence registry of the node that owns the room, so other
+    // nodes redirect there; 307 keeps the method and body
     @PostMapping("/{roomId}/join")
     @Operation(summary = "Join meeting room", description = "Allows a participant to join a meeting room")
     public ResponseEntity<?> joinMeeting(
             @Parameter(description = "Room ID") @PathVariable String roomId,
-            @Valid @RequestBody JoinMeetingRequest request) {
+            @Valid @RequestBody JoinMeetingRequest request,
+            HttpServletRequest httpRequest) {
+        Optional<String> owner = signalingCluster.remoteOwnerUrl(roomId);
+        if (owner.isPresent()) {
+            return redirectToOwner(owner.get(), httpRequest);
+        }
         try {
             request.setRoomId(roomId);
             MeetingParticipant participant = meetingRoomService.joinMeeting(request);
             return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Successfully joined meeting",
-                    "data", participant));
+                    "data", participant,
+                    "signalingUrl", signalingCluster.webSocketUrl(roomId)));
         } catch (Exception e) {
             log.error("Error joining meeting: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of(
@@ -166,7 +208,12 @@ public class MeetingRoomController {
     @Operation(summary = "Leave meeting room", description = "Allows a participant to leave a meeting room")
     public ResponseEntity<?> leaveMeeting(
             @Parameter(description = "Room ID") @PathVariable String roomId,
-            @RequestParam String participantId) {
+            @RequestParam String participantId,
+            HttpServletRequest httpRequest) {
+        Optional<String> owner = signalingCluster.remoteOwnerUrl(roomId);
+        if (owner.isPresent()) {
+            return redirectToOwner(owner.get(), httpRequest);
+        }
         try {
             meetingRoomService.leaveMeeting(roomId, participantId);
             return ResponseEntity.ok(Map.of(
@@ -221,15 +268,25 @@ public class MeetingRoomController {
     }
 
     @GetMapping("/{roomId}/messages")
-    @Operation(summary = "Get meeting messages", description = "Retrieves all messages from a meeting room")
+    @Operation(summary = "Get meeting messages",
+            description = "Retrieves a page of messages from a meeting room, oldest first; pass nextCursor as before for older messages")
     public ResponseEntity<?> getMeetingMessages(
-            @Parameter(description = "Room ID") @PathVariable String roomId) {
+            @Parameter(description = "Room ID") @PathVariable String roomId,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String before,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Include join and leave messages") @RequestParam(defaultValue = "true") boolean includeSystem) {
         try {
-            List<MeetingMessage> messages = meetingRoomService.getMeetingMessages(roomId);
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "data", messages,
-                    "count", messages.size()));
+            MeetingMessagePage page = meetingRoomService.getMeetingMessages(roomId, before, limit, includeSystem);
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("data", page.getMessages());
+            body.put("count", page.getMessages().size());
+            body.put("nextCursor", page.getNextCursor());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()));
         } catch (Exception e) {
             log.error("Error getting meeting messages: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -260,10 +317,11 @@ public class MeetingRoomController {
     @Operation(summary = "Cleanup expired meetings", description = "Manually triggers cleanup of expired meeting rooms")
     public ResponseEntity<?> cleanupExpiredMeetings() {
         try {
-            meetingRoomService.cleanupExpiredMeetings();
+            int ended = meetingRoomService.cleanupExpiredMeetings();
             return ResponseEntity.ok(Map.of(
                     "success", true,
-                    "message", "Expired meetings cleaned up successfully"));
+                    "message", "Expired meetings cleaned up successfully",
+                    "count", ended));
         } catch (Exception e) {
             log.error("Error cleaning up expired meetings: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -271,4 +329,15 @@ public class MeetingRoomController {
                     "message", e.getMessage()));
         }
     }
+
+    // The same path and query on the owner; the request URI already carries the context path
+    private static ResponseEntity<?> redirectToOwner(String ownerUrl, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                .location(UriComponentsBuilder.fromHttpUrl(ownerUrl)
+                        .path(request.getRequestURI())
+                        .query(request.getQueryString())
+                        .build(true)
+                        .toUri())
+                .build();
+    }
 }
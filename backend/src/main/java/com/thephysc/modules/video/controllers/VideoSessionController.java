@@ -1,27 +1,37 @@
 package com.thephysc.modules.video.controllers;
 
+import com.thephysc.modules.video.dto.ConnectionQualityReportDto;
+import com.thephysc.modules.video.dto.SignalingNodeDto;
 import com.thephysc.modules.video.dto.VideoSessionDto;
 import com.thephysc.modules.video.dto.VideoTokenResponse;
-import com.thephysc.modules.video.dto.WebRTCConfigDto;
 import com.thephysc.modules.video.services.VideoSessionService;
-import com.thephysc.modules.video.services.WebRTCService;
+import com.thephysc.modules.video.signaling.SignalingCluster;
+import com.thephysc.modules.video.telemetry.ConnectionQualityTelemetry;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/video")
-@CrossOrigin(origins = "*", maxAge = 3600)
 public class VideoSessionController {
 
     private final VideoSessionService videoSessionService;
-    private final WebRTCService webRTCService;
+    private final SignalingCluster signalingCluster;
+    private final ConnectionQualityTelemetry connectionQualityTelemetry;
 
-    public VideoSessionController(VideoSessionService videoSessionService, WebRTCService webRTCService) {
+    public VideoSessionController(VideoSessionService videoSessionService,
+                                  SignalingCluster signalingCluster,
+                                  ConnectionQualityTelemetry connectionQualityTelemetry) {
         this.videoSessionService = videoSessionService;
-        this.webRTCService = webRTCService;
+        this.signalingCluster = signalingCluster;
+        this.connectionQualityTelemetry = connectionQualityTelemetry;
     }
 
     @GetMapping("/sessions/{sessionId}")
@@ -45,30 +55,46 @@ public class VideoSessionController {
         return ResponseEntity.ok(tokenResponse);
     }
     
-    @GetMapping("/webrtc-config")
-    public ResponseEntity<WebRTCConfigDto> getWebRTCConfig() {
-        WebRTCConfigDto config = webRTCService.getWebRTCConfig();
-        return ResponseEntity.ok(config);
-    }
-    
     @GetMapping("/join/{sessionId}")
     public ResponseEntity<Map<String, String>> getJoinInfo(
             @PathVariable String sessionId,
             Authentication authentication) {
-        // Get the session details and verify access
-        VideoSessionDto sessionDto = videoSessionService.getVideoSession(sessionId);
-        
-        // Generate a token that will be used for WebSocket authentication
+        // Verify access against the session's cached participants and generate a token that will
+        // be used for WebSocket authentication; nothing is written
         String identity = authentication.getName();
-        VideoTokenResponse tokenResponse = videoSessionService.generateToken(sessionId, identity);
+        VideoTokenResponse tokenResponse = videoSessionService.issueJoinToken(sessionId, identity);
         
-        // Return information needed to join the call
+        // Return information needed to join the call; the socket goes to the node that owns the session
         Map<String, String> joinInfo = Map.of(
             "sessionId", sessionId,
             "token", tokenResponse.getToken(),
-            "wsUrl", "/api/ws/rtc?sessionId=" + sessionId + "&token=" + tokenResponse.getToken()
+            "wsUrl", signalingCluster.webSocketUrl(sessionId) + "&token=" + tokenResponse.getToken()
         );
         
         return ResponseEntity.ok(joinInfo);
     }
+
+    @GetMapping("/signaling/nodes")
+    public ResponseEntity<List<SignalingNodeDto>> getSignalingNodes() {
+        return ResponseEntity.ok(signalingCluster.getNodes());
+    }
+
+    // Only the node that owns the session has its telemetry, so other nodes redirect there
+    @GetMapping("/signaling/rooms/{sessionId}/quality")
+    public ResponseEntity<ConnectionQualityReportDto> getConnectionQuality(@PathVariable String sessionId,
+                                                                           HttpServletRequest request) {
+        Optional<String> owner = signalingCluster.remoteOwnerUrl(sessionId);
+        if (owner.isPresent()) {
+            // The request URI carries the context path
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                    .location(UriComponentsBuilder.fromHttpUrl(owner.get())
+                            .path(request.getRequestURI())
+                            .build(true)
+                            .toUri())
+                    .build();
+        }
+        return connectionQualityTelemetry.getReport(sessionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -0,0 +1,28 @@
+package com.thephysc.modules.video.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rolling connection quality of one participant, or of a whole room, over its recent samples.
+ * Percentiles are {@code null} when no sample reported the metric.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionQualityDto {
+    private String participantId; // null for the room as a whole
+    private int samples;
+    private Double rttP50Ms;
+    private Double rttP95Ms;
+    private Double jitterP50Ms;
+    private Double jitterP95Ms;
+    private Double packetLossP50;
+    private Double packetLossP95;
+    private Double bitrateP50Kbps;
+    private Double bitrateP05Kbps;
+    private String quality; // excellent, good, poor
+}
@@ -0,0 +1,18 @@
+package com.thephysc.modules.video.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionQualityReportDto {
+    private String sessionId;
+    private ConnectionQualityDto room;
+    private List<ConnectionQualityDto> participants;
+}
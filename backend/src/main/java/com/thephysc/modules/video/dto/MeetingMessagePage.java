@@ -0,0 +1,19 @@
+package com.thephysc.modules.video.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a meeting's chat history, oldest message first. Pass {@code nextCursor} as
+ * {@code before} to get the page of older messages; it is {@code null} on the oldest page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeetingMessagePage {
+    private List<MeetingMessageResponse> messages;
+    private String nextCursor;
+}
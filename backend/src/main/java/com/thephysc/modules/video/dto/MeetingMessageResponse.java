@@ -0,0 +1,43 @@
+package com.thephysc.modules.video.dto;
+
+import com.thephysc.core.entities.MeetingMessage;
+import com.thephysc.core.entities.MeetingParticipant;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class MeetingMessageResponse {
+
+    private Long id;
+    private String senderId;
+    private String senderName;
+    private MeetingParticipant.ParticipantRole senderRole;
+    private MeetingMessage.MessageType messageType;
+    private String content;
+    private String fileUrl;
+    private String fileName;
+    private Long fileSize;
+    private String fileType;
+    private Boolean isSystemMessage;
+    private LocalDateTime createdAt;
+
+    public static MeetingMessageResponse fromEntity(MeetingMessage message) {
+        return MeetingMessageResponse.builder()
+                .id(message.getId())
+                .senderId(message.getSenderId())
+                .senderName(message.getSenderName())
+                .senderRole(message.getSenderRole())
+                .messageType(message.getMessageType())
+                .content(message.getContent())
+                .fileUrl(message.getFileUrl())
+                .fileName(message.getFileName())
+                .fileSize(message.getFileSize())
+                .fileType(message.getFileType())
+                .isSystemMessage(message.getIsSystemMessage())
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+}
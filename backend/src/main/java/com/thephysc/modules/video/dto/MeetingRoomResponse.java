@@ -35,7 +35,7 @@ public class MeetingRoomResponse {
     private LocalDateTime updatedAt;
 
     // Convert from entity
-    public static MeetingRoomResponse fromEntity(MeetingRoom meetingRoom) {
+    public static MeetingRoomResponse fromEntity(MeetingRoom meetingRoom, long activeParticipantsCount) {
         return MeetingRoomResponse.builder()
                 .id(meetingRoom.getId())
                 .roomId(meetingRoom.getRoomId())
@@ -55,7 +55,7 @@ public class MeetingRoomResponse {
                 .isFileSharingEnabled(meetingRoom.getIsFileSharingEnabled())
                 .isScreenSharingEnabled(meetingRoom.getIsScreenSharingEnabled())
                 .isCameraEnabled(meetingRoom.getIsCameraEnabled())
-                .activeParticipantsCount(meetingRoom.getActiveParticipantsCount())
+                .activeParticipantsCount(activeParticipantsCount)
                 .joinUrl("/dashboard/meeting/" + meetingRoom.getRoomId())
                 .createdAt(meetingRoom.getCreatedAt())
                 .updatedAt(meetingRoom.getUpdatedAt())
@@ -0,0 +1,22 @@
+package com.thephysc.modules.video.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * The {@code data} of a {@code chat} signaling frame. Clients send the content and, optionally,
+ * a display name; the server stamps {@code sentAt} before the frame goes to the room.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SignalingChatDto {
+    private String content;
+    private String senderName;
+    private Instant sentAt;
+}
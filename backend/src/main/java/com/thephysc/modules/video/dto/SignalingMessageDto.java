@@ -1,36 +1,23 @@
 package com.thephysc.modules.video.dto;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * A signaling frame. Frames are read and written by
+ * {@link com.thephysc.modules.video.signaling.SignalingCodec}; for inbound frames {@code data}
+ * holds the payload as raw JSON so it is relayed without being parsed.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class SignalingMessageDto {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-    
     private String sessionId;
     private String from;
     private String to;
-    private String type; // "offer", "answer", "ice-candidate", "new-participant", "participant-left"
+    private String type; // "offer", "answer", "ice-candidate", "chat", "new-participant", "participant-left"
     private Object data;
-    
-    public String toJson() {
-        try {
-            return objectMapper.writeValueAsString(this);
-        } catch (JsonProcessingException e) {
-            return "{}";
-        }
-    }
-    
-    public static SignalingMessageDto fromJson(String json) {
-        try {
-            return objectMapper.readValue(json, SignalingMessageDto.class);
-        } catch (JsonProcessingException e) {
-            return new SignalingMessageDto();
-        }
-    }
 }
@@ -0,0 +1,17 @@
+package com.thephysc.modules.video.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalingNodeDto {
+    private String nodeId;
+    private String url;
+    private boolean local;
+    private Instant lastSeen;
+}
@@ -0,0 +1,20 @@
+package com.thephysc.modules.video.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The {@code data} of a {@code stats} signaling frame: a client's periodic summary of its
+ * WebRTC connection, taken from {@code RTCPeerConnection.getStats()}. Fields the client cannot
+ * measure are left out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalingStatsDto {
+    private Double rttMs;
+    private Double jitterMs;
+    private Double packetLoss; // percent of packets lost
+    private Double bitrateKbps;
+}
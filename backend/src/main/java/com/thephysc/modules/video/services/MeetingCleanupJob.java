@@ -0,0 +1,94 @@
+package com.thephysc.modules.video.services;
+
+import com.thephysc.core.events.MeetingsEndedEvent;
+import com.thephysc.core.repositories.MeetingParticipantRepository;
+import com.thephysc.core.repositories.MeetingRoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ends active meetings whose scheduled end has passed.
+ * <p>
+ * Every node runs the job. Each chunk of expired rooms is claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so nodes running at the same time end disjoint rooms instead of
+ * waiting on each other. A chunk is then two bulk updates, one for the rooms and one for their
+ * connected participants, followed by a {@link MeetingsEndedEvent} so presence and signaling state
+ * for those rooms is dropped once the chunk has committed.
+ */
+@Slf4j
+@Component
+public class MeetingCleanupJob {
+
+    private final MeetingRoomRepository meetingRoomRepository;
+    private final MeetingParticipantRepository participantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    public MeetingCleanupJob(
+            MeetingRoomRepository meetingRoomRepository,
+            MeetingParticipantRepository participantRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${meetings.cleanup.enabled:true}") boolean enabled,
+            @Value("${meetings.cleanup.chunk-size:500}") int chunkSize) {
+        this.meetingRoomRepository = meetingRoomRepository;
+        this.participantRepository = participantRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${meetings.cleanup.interval-ms:60000}")
+    public void run() {
+        if (enabled) {
+            endExpiredMeetings();
+        }
+    }
+
+    /**
+     * @return the number of meetings this call ended
+     */
+    public int endExpiredMeetings() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int ended;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> endChunk(now));
+            ended = chunk != null ? chunk : 0;
+            total += ended;
+        } while (ended == chunkSize);
+        if (total > 0) {
+            log.info("Ended {} expired meetings", total);
+        }
+        return total;
+    }
+
+    private int endChunk(LocalDateTime now) {
+        List<MeetingRoomRepository.ExpiredRoomRow> expired =
+                meetingRoomRepository.lockExpiredActiveMeetings(now, chunkSize);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(expired.size());
+        List<String> roomIds = new ArrayList<>(expired.size());
+        for (MeetingRoomRepository.ExpiredRoomRow row : expired) {
+            ids.add(row.getId());
+            roomIds.add(row.getRoomId());
+        }
+        meetingRoomRepository.markEnded(ids, now);
+        participantRepository.markConnectedLeft(ids, now);
+        eventPublisher.publishEvent(new MeetingsEndedEvent(roomIds));
+        return expired.size();
+    }
+}
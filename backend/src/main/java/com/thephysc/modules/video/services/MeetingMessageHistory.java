@@ -0,0 +1,243 @@
+package com.thephysc.modules.video.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thephysc.core.entities.MeetingMessage;
+import com.thephysc.core.entities.MeetingRoom;
+import com.thephysc.core.repositories.MeetingMessageRepository;
+import com.thephysc.core.repositories.MeetingRoomRepository;
+import com.thephysc.modules.video.dto.MeetingMessagePage;
+import com.thephysc.modules.video.dto.MeetingMessageResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Pages a meeting's chat history, newest page first.
+ * <p>
+ * Each room read recently keeps its last {@code meetings.messages.recent-size} messages in a ring
+ * buffer. The buffer is loaded from the database on the first read, and from then on the
+ * {@link MeetingMessageWriter} appends every message it writes, so the latest page of an active
+ * room is served from memory. Older pages are read with {@code (created_at, id)} keyset cursors
+ * on the {@code idx_meeting_messages_room_created} index.
+ * <p>
+ * Messages written by other nodes never reach the buffer, so before serving it the room's rows
+ * are counted on the same index and the buffer is reloaded when the count differs from the
+ * messages it knows of. Ids and timestamps would not do: every node takes ids from its own
+ * sequence block, and writes commit later than they are stamped. Buffers are dropped 30 minutes
+ * after they were created.
+ */
+@Component
+public class MeetingMessageHistory {
+
+    private static final Comparator<MeetingMessageResponse> ORDER = Comparator
+            .comparing(MeetingMessageResponse::getCreatedAt)
+            .thenComparing(MeetingMessageResponse::getId);
+
+    private final MeetingMessageRepository messageRepository;
+    private final MeetingRoomRepository meetingRoomRepository;
+    private final int recentSize;
+    private final int maxPageSize;
+    private final Cache<Long, RecentMessages> recent;
+
+    public MeetingMessageHistory(
+            MeetingMessageRepository messageRepository,
+            MeetingRoomRepository meetingRoomRepository,
+            @Value("${meetings.messages.recent-size:100}") int recentSize,
+            @Value("${meetings.messages.recent-rooms:10000}") long recentRooms,
+            @Value("${meetings.messages.max-page-size:200}") int maxPageSize) {
+        this.messageRepository = messageRepository;
+        this.meetingRoomRepository = meetingRoomRepository;
+        this.recentSize = recentSize;
+        this.maxPageSize = maxPageSize;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(recentRooms)
+                .expireAfterWrite(Duration.ofMinutes(30))
+                .build();
+    }
+
+    /**
+     * @param before the {@code nextCursor} of the previous page, or {@code null} for the latest page
+     * @throws IllegalArgumentException if the cursor is not one this class issued
+     */
+    @Transactional(readOnly = true)
+    public MeetingMessagePage getPage(String roomId, String before, int limit, boolean includeSystem) {
+        MeetingRoom room = meetingRoomRepository.findByRoomId(roomId)
+                .orElseThrow(() -> new RuntimeException("Meeting room not found: " + roomId));
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        if (before != null) {
+            Cursor cursor = Cursor.decode(before);
+            return toPage(messageRepository.findPageBefore(
+                    room.getId(), cursor.createdAt, cursor.id, includeSystem, pageSize + 1), pageSize);
+        }
+        RecentMessages buffer = recent.get(room.getId(), pk -> new RecentMessages(recentSize));
+        MeetingMessagePage page = buffer.latestPage(pageSize, includeSystem,
+                messageRepository.countByRoom(room.getId()),
+                () -> messageRepository.findLatest(room.getId(), true, recentSize));
+        if (page != null) {
+            return page;
+        }
+        return toPage(messageRepository.findLatest(room.getId(), includeSystem, pageSize + 1), pageSize);
+    }
+
+    /**
+     * Appends messages that have just been committed to the buffers of their rooms. Rooms nobody
+     * has read lately have no buffer and are left alone.
+     */
+    void recordWritten(List<MeetingMessage> messages) {
+        for (MeetingMessage message : messages) {
+            RecentMessages buffer = recent.getIfPresent(message.getMeetingRoom().getId());
+            if (buffer != null) {
+                buffer.append(toResponse(message));
+            }
+        }
+    }
+
+    private static MeetingMessagePage toPage(List<MeetingMessage> newestFirst, int pageSize) {
+        boolean more = newestFirst.size() > pageSize;
+        List<MeetingMessageResponse> messages = new ArrayList<>(Math.min(newestFirst.size(), pageSize));
+        for (int i = Math.min(newestFirst.size(), pageSize) - 1; i >= 0; i--) {
+            messages.add(toResponse(newestFirst.get(i)));
+        }
+        return new MeetingMessagePage(messages, more ? Cursor.encode(messages.get(0)) : null);
+    }
+
+    private static MeetingMessageResponse toResponse(MeetingMessage message) {
+        MeetingMessageResponse response = MeetingMessageResponse.fromEntity(message);
+        // Match the column's precision, so cursors from the buffer and from the database compare the same
+        if (response.getCreatedAt() != null) {
+            response.setCreatedAt(response.getCreatedAt().truncatedTo(ChronoUnit.MICROS));
+        }
+        return response;
+    }
+
+    /**
+     * The last messages of one room, oldest first. Messages appended before the buffer is loaded
+     * are merged with what the load returns, so a write that commits while the load runs is not lost.
+     * A message counted both by a load and by its append only causes one more reload.
+     */
+    private static final class RecentMessages {
+        private final MeetingMessageResponse[] ring;
+        private int head; // index of the oldest message
+        private int size;
+        private boolean loaded;
+        private boolean complete; // the buffer holds every message of the room
+        private long known; // messages of the room written as of the last load, plus those appended since
+
+        private RecentMessages(int capacity) {
+            this.ring = new MeetingMessageResponse[capacity];
+        }
+
+        synchronized void append(MeetingMessageResponse message) {
+            known++;
+            for (int i = 0; i < size; i++) {
+                if (ring[(head + i) % ring.length].getId().equals(message.getId())) {
+                    return; // already loaded from the database
+                }
+            }
+            if (size == ring.length) {
+                complete = false;
+                if (ORDER.compare(message, ring[head]) < 0) {
+                    return;
+                }
+                head = (head + 1) % ring.length;
+                size--;
+            }
+            // Usually the newest; one written by this node may sort before messages loaded from another
+            int position = size;
+            while (position > 0 && ORDER.compare(ring[(head + position - 1) % ring.length], message) > 0) {
+                ring[(head + position) % ring.length] = ring[(head + position - 1) % ring.length];
+                position--;
+            }
+            ring[(head + position) % ring.length] = message;
+            size++;
+        }
+
+        /**
+         * @return the latest page, or {@code null} if the buffer does not hold enough messages to tell
+         */
+        synchronized MeetingMessagePage latestPage(int pageSize, boolean includeSystem, long stored,
+                                                   Supplier<List<MeetingMessage>> loader) {
+            if (!loaded || stored != known) {
+                // First read, or another node wrote to the room
+                load(loader.get());
+                known = stored;
+            }
+            List<MeetingMessageResponse> newestFirst = new ArrayList<>(pageSize + 1);
+            for (int i = size - 1; i >= 0 && newestFirst.size() <= pageSize; i--) {
+                MeetingMessageResponse message = ring[(head + i) % ring.length];
+                if (includeSystem || !Boolean.TRUE.equals(message.getIsSystemMessage())) {
+                    newestFirst.add(message);
+                }
+            }
+            boolean more = newestFirst.size() > pageSize;
+            if (!more && !complete) {
+                return null;
+            }
+            List<MeetingMessageResponse> messages = new ArrayList<>(
+                    newestFirst.subList(0, Math.min(pageSize, newestFirst.size())));
+            Collections.reverse(messages);
+            return new MeetingMessagePage(messages, more ? Cursor.encode(messages.get(0)) : null);
+        }
+
+        private void load(List<MeetingMessage> newestFirst) {
+            List<MeetingMessageResponse> merged = new ArrayList<>(newestFirst.size() + size);
+            for (MeetingMessage message : newestFirst) {
+                merged.add(toResponse(message));
+            }
+            for (int i = 0; i < size; i++) {
+                MeetingMessageResponse appended = ring[(head + i) % ring.length];
+                if (merged.stream().noneMatch(m -> m.getId().equals(appended.getId()))) {
+                    merged.add(appended);
+                }
+            }
+            merged.sort(ORDER);
+            int from = Math.max(0, merged.size() - ring.length);
+            head = 0;
+            size = merged.size() - from;
+            for (int i = 0; i < size; i++) {
+                ring[i] = merged.get(from + i);
+            }
+            complete = newestFirst.size() < ring.length && from == 0;
+            loaded = true;
+        }
+    }
+
+    private static final class Cursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        private Cursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        static String encode(MeetingMessageResponse message) {
+            String value = message.getCreatedAt() + "," + message.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int comma = value.indexOf(',');
+                return new Cursor(LocalDateTime.parse(value.substring(0, comma)),
+                        Long.valueOf(value.substring(comma + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+}
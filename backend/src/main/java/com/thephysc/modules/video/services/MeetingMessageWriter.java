@@ -0,0 +1,317 @@
+package com.thephysc.modules.video.services;
+
+import com.thephysc.core.entities.MeetingMessage;
+import com.thephysc.core.entities.MeetingParticipant;
+import com.thephysc.core.entities.MeetingRoom;
+import com.thephysc.core.repositories.MeetingMessageRepository;
+import com.thephysc.core.repositories.MeetingRoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends meeting messages off the request path. Messages are queued in memory and the next
+ * flush inserts everything queued so far in one transaction, so a join never waits for its
+ * "joined the meeting" line to be written and a burst of chat never waits on the database.
+ * <p>
+ * A flush runs every {@code meetings.messages.flush-interval-ms}, or as soon as
+ * {@code meetings.messages.flush-batch-size} messages are waiting.
+ * <p>
+ * When the database fails in a way that may pass, such as a lost connection or a lock timeout,
+ * the chunk goes back to the head of the queue and flushing pauses, starting at
+ * {@code meetings.messages.retry-delay-ms} and doubling up to {@code meetings.messages.max-retry-delay-ms}.
+ * When it rejects the chunk outright, the messages are written one by one and only those it
+ * rejects on their own, such as one for a room deleted meanwhile, are dropped. Queued and retried
+ * messages together are bounded by {@code meetings.messages.max-pending}; past it new messages are
+ * dropped rather than growing the backlog without bound.
+ */
+@Slf4j
+@Component
+public class MeetingMessageWriter {
+
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    private final MeetingMessageRepository messageRepository;
+    private final MeetingRoomRepository meetingRoomRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeetingMessageHistory history;
+    private final int flushBatchSize;
+    private final int maxPending;
+    private final long retryDelayMs;
+    private final long maxRetryDelayMs;
+    private final Queue<PendingMessage> pending = new ConcurrentLinkedQueue<>();
+    // Messages of a failed chunk, written before anything still pending; guarded by the flush lock
+    private final Deque<PendingMessage> retrying = new ArrayDeque<>();
+    private long nextRetryDelayMs; // guarded by the flush lock
+    private long retryAt; // guarded by the flush lock
+    private final AtomicInteger pendingCount = new AtomicInteger(); // queued and retrying
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService flushExecutor;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter skippedCounter;
+
+    public MeetingMessageWriter(
+            MeetingMessageRepository messageRepository,
+            MeetingRoomRepository meetingRoomRepository,
+            TransactionTemplate transactionTemplate,
+            MeetingMessageHistory history,
+            MeterRegistry meterRegistry,
+            @Value("${meetings.messages.flush-batch-size:200}") int flushBatchSize,
+            @Value("${meetings.messages.max-pending:100000}") int maxPending,
+            @Value("${meetings.messages.retry-delay-ms:1000}") long retryDelayMs,
+            @Value("${meetings.messages.max-retry-delay-ms:30000}") long maxRetryDelayMs) {
+        this.messageRepository = messageRepository;
+        this.meetingRoomRepository = meetingRoomRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.history = history;
+        this.flushBatchSize = flushBatchSize;
+        this.maxPending = maxPending;
+        this.retryDelayMs = retryDelayMs;
+        this.maxRetryDelayMs = maxRetryDelayMs;
+        this.nextRetryDelayMs = retryDelayMs;
+        this.flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "meeting-message-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("meetings.messages.pending", pendingCount, AtomicInteger::get)
+                .description("Meeting messages waiting to be written")
+                .register(meterRegistry);
+        this.writtenCounter = messageCounter(meterRegistry, "written");
+        this.droppedCounter = messageCounter(meterRegistry, "dropped");
+        this.skippedCounter = messageCounter(meterRegistry, "skipped");
+    }
+
+    /**
+     * Queues a system message for the room with the given primary key. Messages are written in
+     * the order they were queued.
+     */
+    public void appendSystemMessage(Long meetingRoomPk, String content) {
+        enqueue(new PendingMessage(meetingRoomPk, null, MeetingMessage.builder()
+                .senderId("system")
+                .senderName("System")
+                .senderRole(MeetingParticipant.ParticipantRole.PARTICIPANT)
+                .messageType(MeetingMessage.MessageType.SYSTEM)
+                .content(content)
+                .isSystemMessage(true)
+                .build()));
+    }
+
+    /**
+     * Queues a participant's message for the room with the given room id. The room is resolved
+     * when the message is written; messages for a session that is not a meeting room are skipped.
+     */
+    public void appendMessage(String roomId, MeetingMessage message) {
+        enqueue(new PendingMessage(null, roomId, message));
+    }
+
+    /**
+     * Queues a text chat line, as sent over signaling.
+     */
+    public void appendChatMessage(String roomId, String senderId, String senderName, String content) {
+        appendMessage(roomId, MeetingMessage.builder()
+                .senderId(senderId)
+                .senderName(senderName)
+                .senderRole(MeetingParticipant.ParticipantRole.PARTICIPANT)
+                .messageType(MeetingMessage.MessageType.TEXT)
+                .content(content)
+                .isSystemMessage(false)
+                .build());
+    }
+
+    private void enqueue(PendingMessage message) {
+        int queued = pendingCount.incrementAndGet();
+        if (queued > maxPending) {
+            pendingCount.decrementAndGet();
+            droppedCounter.increment();
+            log.warn("Dropping meeting message: {} messages are already waiting to be written", maxPending);
+            return;
+        }
+        pending.add(message);
+        if (queued >= flushBatchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the final flush picks the messages up
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${meetings.messages.flush-interval-ms:500}")
+    public void flush() {
+        // An early flush and the scheduled one would otherwise split the same backlog between them
+        flushLock.lock();
+        try {
+            if (System.currentTimeMillis() < retryAt) {
+                // Backing off; an early flush stays requested, so new messages do not keep asking
+                return;
+            }
+            flushRequested.set(false);
+            while (!retrying.isEmpty() || !pending.isEmpty()) {
+                List<PendingMessage> chunk = new ArrayList<>();
+                PendingMessage message;
+                while (chunk.size() < FLUSH_CHUNK_SIZE && (message = retrying.poll()) != null) {
+                    chunk.add(message);
+                }
+                while (chunk.size() < FLUSH_CHUNK_SIZE && (message = pending.poll()) != null) {
+                    chunk.add(message);
+                }
+                if (!writeChunk(chunk)) {
+                    return;
+                }
+            }
+            nextRetryDelayMs = retryDelayMs;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        flushLock.lock();
+        try {
+            retryAt = 0;
+        } finally {
+            flushLock.unlock();
+        }
+        flush();
+        if (pendingCount.get() > 0) {
+            log.error("Shutting down with {} meeting messages not written", pendingCount.get());
+        }
+    }
+
+    /**
+     * @return false if the database failed in a way worth retrying; the unwritten messages are
+     * then back at the head of the queue
+     */
+    private boolean writeChunk(List<PendingMessage> chunk) {
+        try {
+            written(chunk, insert(chunk));
+            return true;
+        } catch (Exception e) {
+            if (isTransient(e)) {
+                retryLater(chunk, e);
+                return false;
+            }
+            log.warn("Failed to write {} meeting messages, writing them one by one: {}", chunk.size(), e.getMessage());
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            List<PendingMessage> single = chunk.subList(i, i + 1);
+            try {
+                written(single, insert(single));
+            } catch (Exception e) {
+                if (isTransient(e)) {
+                    retryLater(chunk.subList(i, chunk.size()), e);
+                    return false;
+                }
+                pendingCount.decrementAndGet();
+                droppedCounter.increment();
+                log.error("Dropping a meeting message the database rejected: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private List<MeetingMessage> insert(List<PendingMessage> chunk) {
+        return transactionTemplate.execute(status -> {
+            Map<String, Optional<MeetingRoom>> roomsById = new HashMap<>();
+            List<MeetingMessage> messages = new ArrayList<>(chunk.size());
+            for (PendingMessage queued : chunk) {
+                // An id assigned by an attempt that rolled back would make this a merge
+                queued.message.setId(null);
+                MeetingRoom room;
+                if (queued.meetingRoomPk != null) {
+                    room = meetingRoomRepository.getReferenceById(queued.meetingRoomPk);
+                } else {
+                    room = roomsById.computeIfAbsent(queued.roomId, meetingRoomRepository::findByRoomId)
+                            .orElse(null);
+                }
+                if (room != null) {
+                    queued.message.setMeetingRoom(room);
+                    messages.add(queued.message);
+                }
+            }
+            return messageRepository.saveAll(messages);
+        });
+    }
+
+    private void written(List<PendingMessage> chunk, List<MeetingMessage> written) {
+        int count = written != null ? written.size() : 0;
+        if (written != null) {
+            history.recordWritten(written);
+        }
+        pendingCount.addAndGet(-chunk.size());
+        writtenCounter.increment(count);
+        // Chat from video sessions that are not meeting rooms
+        skippedCounter.increment(chunk.size() - count);
+    }
+
+    private void retryLater(List<PendingMessage> unwritten, Exception e) {
+        for (int i = unwritten.size() - 1; i >= 0; i--) {
+            retrying.addFirst(unwritten.get(i));
+        }
+        retryAt = System.currentTimeMillis() + nextRetryDelayMs;
+        log.warn("Failed to write {} meeting messages, retrying in {} ms: {}",
+                unwritten.size(), nextRetryDelayMs, e.getMessage());
+        nextRetryDelayMs = Math.min(nextRetryDelayMs * 2, maxRetryDelayMs);
+    }
+
+    // Failures that may pass on their own, as opposed to the database rejecting the rows
+    private static boolean isTransient(Exception e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private static Counter messageCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("meetings.messages")
+                .description("Meeting messages taken off the write-behind queue, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class PendingMessage {
+        private final Long meetingRoomPk;
+        private final String roomId;
+        private final MeetingMessage message;
+
+        private PendingMessage(Long meetingRoomPk, String roomId, MeetingMessage message) {
+            this.meetingRoomPk = meetingRoomPk;
+            this.roomId = roomId;
+            this.message = message;
+        }
+    }
+}
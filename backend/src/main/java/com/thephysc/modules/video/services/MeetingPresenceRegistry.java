@@ -0,0 +1,189 @@
+package com.thephysc.modules.video.services;
+
+import com.thephysc.core.entities.MeetingParticipant;
+import com.thephysc.core.events.MeetingsEndedEvent;
+import com.thephysc.core.repositories.MeetingParticipantRepository;
+import com.thephysc.modules.video.signaling.SignalingBus;
+import com.thephysc.modules.video.signaling.SignalingCluster;
+import com.thephysc.modules.video.signaling.SignalingEnvelope;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Authoritative record of who is connected to the meeting rooms this node owns.
+ * <p>
+ * Each room belongs to one node of the {@link SignalingCluster} ring, and joins and leaves are
+ * sent to that node, so its registry sees every seat taken or given back. Each room keeps an
+ * atomic connected count next to a participant-id map. A participant's state changes inside
+ * {@link ConcurrentHashMap#compute}, so the same participant is never admitted twice, and taking a
+ * seat is a compare-and-set on the count that fails once the room is at capacity, so concurrent
+ * joins can never over-admit. The participant rows in the database follow this state.
+ * <p>
+ * A room is loaded from its connected rows the first time it is used, and again after the ring
+ * has changed, since the previous owner may have admitted or released participants meanwhile.
+ * Joins still in flight on the previous owner while the ring changes are not seen by the new one.
+ * Rooms owned by other nodes are counted in the database.
+ */
+@Component
+public class MeetingPresenceRegistry {
+
+    public enum Admission {
+        ADMITTED,
+        ALREADY_CONNECTED,
+        FULL
+    }
+
+    private final MeetingParticipantRepository participantRepository;
+    private final SignalingCluster signalingCluster;
+    private final SignalingBus bus;
+    private final Map<String, RoomPresence> rooms = new ConcurrentHashMap<>();
+
+    public MeetingPresenceRegistry(MeetingParticipantRepository participantRepository,
+                                   SignalingCluster signalingCluster,
+                                   SignalingBus bus,
+                                   MeterRegistry meterRegistry) {
+        this.participantRepository = participantRepository;
+        this.signalingCluster = signalingCluster;
+        this.bus = bus;
+        Gauge.builder("meetings.participants.connected", rooms, r -> r.values().stream()
+                        .filter(room -> room.generation == signalingCluster.getGeneration())
+                        .mapToInt(room -> room.connected.get())
+                        .sum())
+                .description("Participants connected to the meeting rooms this node owns")
+                .register(meterRegistry);
+    }
+
+    // A meeting ended on another node reaches this one as the signaling END of its room
+    @PostConstruct
+    public void start() {
+        bus.subscribe(envelope -> {
+            if (envelope.getKind() == SignalingEnvelope.Kind.END) {
+                close(envelope.getSessionId());
+            }
+        });
+    }
+
+    /**
+     * Takes a seat for the participant unless the room is full. A participant who is already
+     * connected keeps their seat and is not counted again.
+     *
+     * @param maxParticipants the room's capacity, or {@code null} for no limit
+     */
+    public Admission admit(String roomId, String participantId, Integer maxParticipants) {
+        RoomPresence room = room(roomId);
+        room.capacity = capacityOf(maxParticipants);
+        Admission[] admission = new Admission[1];
+        room.participants.compute(participantId, (id, connected) -> {
+            if (connected != null) {
+                admission[0] = Admission.ALREADY_CONNECTED;
+                return connected;
+            }
+            if (!room.tryTakeSeat()) {
+                admission[0] = Admission.FULL;
+                return null;
+            }
+            admission[0] = Admission.ADMITTED;
+            return Boolean.TRUE;
+        });
+        return admission[0];
+    }
+
+    /**
+     * Frees the participant's seat.
+     *
+     * @return the number of participants still connected to the room
+     */
+    public int leave(String roomId, String participantId) {
+        RoomPresence room = room(roomId);
+        room.participants.computeIfPresent(participantId, (id, connected) -> {
+            room.connected.decrementAndGet();
+            return null;
+        });
+        return room.connected.get();
+    }
+
+    /**
+     * Gives a participant back the seat they held, regardless of capacity, when a leave is undone.
+     */
+    public void restore(String roomId, String participantId) {
+        RoomPresence room = room(roomId);
+        room.participants.computeIfAbsent(participantId, id -> {
+            room.connected.incrementAndGet();
+            return Boolean.TRUE;
+        });
+    }
+
+    /**
+     * Forgets the room and everyone in it, as when the meeting ends.
+     */
+    public void close(String roomId) {
+        rooms.remove(roomId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMeetingsEnded(MeetingsEndedEvent event) {
+        event.getRoomIds().forEach(this::close);
+    }
+
+    public long getConnectedCount(String roomId) {
+        if (!signalingCluster.isLocal(roomId)) {
+            return participantRepository.countByMeetingRoomRoomIdAndStatus(
+                    roomId, MeetingParticipant.ParticipantStatus.CONNECTED);
+        }
+        return room(roomId).connected.get();
+    }
+
+    public boolean isConnected(String roomId, String participantId) {
+        return room(roomId).participants.containsKey(participantId);
+    }
+
+    private RoomPresence room(String roomId) {
+        long generation = signalingCluster.getGeneration();
+        RoomPresence room = rooms.get(roomId);
+        if (room != null && room.generation == generation) {
+            return room;
+        }
+        RoomPresence loaded = new RoomPresence(generation, room != null ? room.capacity : Integer.MAX_VALUE);
+        for (String participantId : participantRepository.findConnectedParticipantIds(roomId)) {
+            if (loaded.participants.putIfAbsent(participantId, Boolean.TRUE) == null) {
+                loaded.connected.incrementAndGet();
+            }
+        }
+        return rooms.merge(roomId, loaded, (current, fresh) -> current.generation == generation ? current : fresh);
+    }
+
+    private static int capacityOf(Integer maxParticipants) {
+        return maxParticipants != null ? maxParticipants : Integer.MAX_VALUE;
+    }
+
+    private static final class RoomPresence {
+        private final long generation;
+        private final AtomicInteger connected = new AtomicInteger();
+        private final Map<String, Boolean> participants = new ConcurrentHashMap<>();
+        private volatile int capacity;
+
+        private RoomPresence(long generation, int capacity) {
+            this.generation = generation;
+            this.capacity = capacity;
+        }
+
+        private boolean tryTakeSeat() {
+            while (true) {
+                int current = connected.get();
+                if (current >= capacity) {
+                    return false;
+                }
+                if (connected.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
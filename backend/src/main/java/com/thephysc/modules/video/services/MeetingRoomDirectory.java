@@ -0,0 +1,83 @@
+package com.thephysc.modules.video.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thephysc.core.entities.MeetingRoom;
+import com.thephysc.core.events.MeetingsEndedEvent;
+import com.thephysc.core.repositories.MeetingRoomRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * What a join needs to know about each meeting room, by room id, so joining a known room reads
+ * nothing from the database. A room is read with one query on its first join and kept until the
+ * meeting ends or {@code meetings.rooms.cache-ttl-minutes} after it was loaded. Only the scheduled
+ * end and whether the meeting has started change after a room is created, and both are changed by
+ * joins, which run on the node that owns the room and update its entry as they go.
+ */
+@Component
+public class MeetingRoomDirectory {
+
+    private final MeetingRoomRepository meetingRoomRepository;
+    private final Cache<String, Room> byRoomId;
+
+    public MeetingRoomDirectory(
+            MeetingRoomRepository meetingRoomRepository,
+            @Value("${meetings.rooms.cache-size:10000}") long cacheSize,
+            @Value("${meetings.rooms.cache-ttl-minutes:30}") long ttlMinutes) {
+        this.meetingRoomRepository = meetingRoomRepository;
+        this.byRoomId = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * @return the room, or {@code null} if there is no such room
+     */
+    Room get(String roomId) {
+        return byRoomId.get(roomId, id -> meetingRoomRepository.findByRoomId(id)
+                .map(room -> new Room(room.getId(), room.getPassword(), room.getMaxParticipants(),
+                        room.getScheduledEndTime(), room.getStatus() == MeetingRoom.RoomStatus.SCHEDULED))
+                .orElse(null));
+    }
+
+    void started(String roomId) {
+        byRoomId.asMap().computeIfPresent(roomId, (id, room) -> new Room(
+                room.id, room.password, room.maxParticipants, room.scheduledEndTime, false));
+    }
+
+    void rescheduled(String roomId, LocalDateTime scheduledEndTime) {
+        byRoomId.asMap().computeIfPresent(roomId, (id, room) -> new Room(
+                room.id, room.password, room.maxParticipants, scheduledEndTime, room.scheduled));
+    }
+
+    void evict(String roomId) {
+        byRoomId.invalidate(roomId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMeetingsEnded(MeetingsEndedEvent event) {
+        byRoomId.invalidateAll(event.getRoomIds());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Room {
+        private final Long id;
+        private final String password;
+        private final Integer maxParticipants;
+        private final LocalDateTime scheduledEndTime;
+        private final boolean scheduled;
+
+        boolean hasExpired() {
+            return scheduledEndTime != null && LocalDateTime.now().isAfter(scheduledEndTime);
+        }
+    }
+}
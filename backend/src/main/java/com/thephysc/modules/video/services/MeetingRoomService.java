@@ -3,22 +3,27 @@ package com.thephysc.modules.video.services;
 import com.thephysc.core.entities.MeetingMessage;
 import com.thephysc.core.entities.MeetingParticipant;
 import com.thephysc.core.entities.MeetingRoom;
-import com.thephysc.core.repositories.MeetingMessageRepository;
+import com.thephysc.core.events.MeetingsEndedEvent;
 import com.thephysc.core.repositories.MeetingParticipantRepository;
 import com.thephysc.core.repositories.MeetingRoomRepository;
 import com.thephysc.modules.video.dto.CreateMeetingRoomRequest;
 import com.thephysc.modules.video.dto.JoinMeetingRequest;
+import com.thephysc.modules.video.dto.MeetingMessagePage;
 import com.thephysc.modules.video.dto.MeetingRoomResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -27,7 +32,12 @@ public class MeetingRoomService {
 
     private final MeetingRoomRepository meetingRoomRepository;
     private final MeetingParticipantRepository participantRepository;
-    private final MeetingMessageRepository messageRepository;
+    private final MeetingPresenceRegistry presenceRegistry;
+    private final MeetingRoomDirectory roomDirectory;
+    private final MeetingMessageWriter messageWriter;
+    private final MeetingMessageHistory messageHistory;
+    private final MeetingCleanupJob meetingCleanupJob;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public MeetingRoomResponse createMeetingRoom(CreateMeetingRoomRequest request) {
@@ -56,41 +66,64 @@ public class MeetingRoomService {
         participantRepository.save(hostParticipant);
 
         log.info("Meeting room created successfully: {}", meetingRoom.getRoomId());
-        return MeetingRoomResponse.fromEntity(meetingRoom);
+        return toResponse(meetingRoom);
     }
 
     public Optional<MeetingRoomResponse> getMeetingRoom(String roomId) {
         return meetingRoomRepository.findByRoomId(roomId)
-                .map(MeetingRoomResponse::fromEntity);
+                .map(this::toResponse);
     }
 
     public List<MeetingRoomResponse> getAllMeetingRooms() {
-        return meetingRoomRepository.findAll().stream()
-                .map(MeetingRoomResponse::fromEntity)
-                .collect(Collectors.toList());
+        return listMeetingRooms(null, Pageable.unpaged()).getContent();
     }
 
     public List<MeetingRoomResponse> getActiveMeetingRooms() {
-        return meetingRoomRepository.findByStatus(MeetingRoom.RoomStatus.ACTIVE).stream()
-                .map(MeetingRoomResponse::fromEntity)
-                .collect(Collectors.toList());
+        return listMeetingRooms(MeetingRoom.RoomStatus.ACTIVE, Pageable.unpaged()).getContent();
     }
 
+    /**
+     * A page of rooms, each with its connected participant count read by the same query.
+     *
+     * @param status only rooms in this state, or {@code null} for every room
+     */
+    @Transactional(readOnly = true)
+    public Page<MeetingRoomResponse> listMeetingRooms(MeetingRoom.RoomStatus status, Pageable pageable) {
+        Page<MeetingRoomRepository.RoomListingRow> rows = status == null
+                ? meetingRoomRepository.findListing(pageable)
+                : meetingRoomRepository.findListingByStatus(status, pageable);
+        return rows.map(row -> MeetingRoomResponse.fromEntity(row.getRoom(), row.getConnectedCount()));
+    }
+
+    /**
+     * The join fast path: the room comes from the {@link MeetingRoomDirectory}, the seat from the
+     * {@link MeetingPresenceRegistry}, and the participant is written with a single upsert, so
+     * joining a known room is one statement. The room is only written by the first join of a
+     * scheduled meeting and by a join that extends an expired one, and the system message is
+     * appended after the response by the {@link MeetingMessageWriter}.
+     * <p>
+     * Runs on the node that owns the room, where the registry is authoritative; the controller
+     * redirects joins and leaves that land elsewhere.
+     */
     @Transactional
     public MeetingParticipant joinMeeting(JoinMeetingRequest request) {
         log.info("Participant {} joining meeting room: {}", request.getParticipantName(), request.getRoomId());
 
         // Find meeting room
-        MeetingRoom meetingRoom = meetingRoomRepository.findByRoomId(request.getRoomId())
-                .orElseThrow(() -> new RuntimeException("Meeting room not found: " + request.getRoomId()));
+        MeetingRoomDirectory.Room meetingRoom = roomDirectory.get(request.getRoomId());
+        if (meetingRoom == null) {
+            throw new RuntimeException("Meeting room not found: " + request.getRoomId());
+        }
 
         // Check if meeting has expired - for demo purposes, extend meeting if it's expired
+        LocalDateTime now = LocalDateTime.now();
         if (meetingRoom.hasExpired()) {
             log.warn("Meeting {} has expired, extending duration for demo purposes", request.getRoomId());
             // Extend the meeting by 2 hours for demo purposes
-            meetingRoom.setScheduledEndTime(LocalDateTime.now().plusMinutes(120));
-            meetingRoom.setDurationMinutes(120);
-            meetingRoomRepository.save(meetingRoom);
+            LocalDateTime scheduledEndTime = now.plusMinutes(120);
+            meetingRoomRepository.extendSchedule(meetingRoom.getId(), scheduledEndTime, 120, now);
+            roomDirectory.rescheduled(request.getRoomId(), scheduledEndTime);
+            onRollback(() -> roomDirectory.evict(request.getRoomId()));
         }
 
         // Check password if required
@@ -98,60 +131,34 @@ public class MeetingRoomService {
             throw new RuntimeException("Invalid meeting password");
         }
 
-        // Check if participant already exists
-        Optional<MeetingParticipant> existingParticipant = participantRepository
-                .findByMeetingRoomRoomIdAndParticipantId(request.getRoomId(), request.getParticipantId());
-
-        MeetingParticipant participant;
-        if (existingParticipant.isPresent()) {
-            // Update existing participant
-            participant = existingParticipant.get();
-            participant.setStatus(MeetingParticipant.ParticipantStatus.CONNECTED);
-            participant.setJoinedAt(LocalDateTime.now());
-            participant.setIsAudioEnabled(request.getIsAudioEnabled());
-            participant.setIsVideoEnabled(request.getIsVideoEnabled());
-        } else {
-            // Check max participants limit
-            long activeCount = participantRepository.countActiveParticipants(request.getRoomId());
-            if (activeCount >= meetingRoom.getMaxParticipants()) {
-                throw new RuntimeException("Meeting room is full");
-            }
-
-            // Create new participant
-            participant = MeetingParticipant.builder()
-                    .meetingRoom(meetingRoom)
-                    .participantId(request.getParticipantId())
-                    .participantName(request.getParticipantName())
-                    .participantEmail(request.getParticipantEmail())
-                    .role(request.getRole())
-                    .status(MeetingParticipant.ParticipantStatus.CONNECTED)
-                    .joinedAt(LocalDateTime.now())
-                    .isAudioEnabled(request.getIsAudioEnabled())
-                    .isVideoEnabled(request.getIsVideoEnabled())
-                    .build();
+        // Take a seat before touching the participant rows, and give it back if the join rolls back
+        MeetingPresenceRegistry.Admission admission = presenceRegistry.admit(
+                request.getRoomId(), request.getParticipantId(), meetingRoom.getMaxParticipants());
+        if (admission == MeetingPresenceRegistry.Admission.FULL) {
+            throw new RuntimeException("Meeting room is full");
         }
-
-        // Start meeting if this is the first participant
-        if (meetingRoom.getStatus() == MeetingRoom.RoomStatus.SCHEDULED) {
-            meetingRoom.setStatus(MeetingRoom.RoomStatus.ACTIVE);
-            meetingRoom.setActualStartTime(LocalDateTime.now());
-            meetingRoomRepository.save(meetingRoom);
+        if (admission == MeetingPresenceRegistry.Admission.ADMITTED) {
+            onRollback(() -> presenceRegistry.leave(request.getRoomId(), request.getParticipantId()));
         }
 
-        participant = participantRepository.save(participant);
+        MeetingParticipant participant = participantRepository.upsertConnected(
+                meetingRoom.getId(),
+                request.getParticipantId(),
+                request.getParticipantName(),
+                request.getParticipantEmail(),
+                request.getRole(),
+                !Boolean.FALSE.equals(request.getIsAudioEnabled()),
+                !Boolean.FALSE.equals(request.getIsVideoEnabled()),
+                now);
 
-        // Add system message for participant joining
-        MeetingMessage joinMessage = MeetingMessage.builder()
-                .meetingRoom(meetingRoom)
-                .senderId("system")
-                .senderName("System")
-                .senderRole(MeetingParticipant.ParticipantRole.PARTICIPANT)
-                .messageType(MeetingMessage.MessageType.SYSTEM)
-                .content(request.getParticipantName() + " joined the meeting")
-                .isSystemMessage(true)
-                .build();
+        // Start meeting if this is the first participant
+        if (meetingRoom.isScheduled()) {
+            meetingRoomRepository.markActiveIfScheduled(meetingRoom.getId(), now);
+            roomDirectory.started(request.getRoomId());
+            onRollback(() -> roomDirectory.evict(request.getRoomId()));
+        }
 
-        messageRepository.save(joinMessage);
+        messageWriter.appendSystemMessage(meetingRoom.getId(), request.getParticipantName() + " joined the meeting");
 
         log.info("Participant {} successfully joined meeting: {}", request.getParticipantName(), request.getRoomId());
         return participant;
@@ -170,21 +177,14 @@ public class MeetingRoomService {
         participantRepository.save(participant);
 
         // Add system message for participant leaving
-        MeetingMessage leaveMessage = MeetingMessage.builder()
-                .meetingRoom(participant.getMeetingRoom())
-                .senderId("system")
-                .senderName("System")
-                .senderRole(MeetingParticipant.ParticipantRole.PARTICIPANT)
-                .messageType(MeetingMessage.MessageType.SYSTEM)
-                .content(participant.getParticipantName() + " left the meeting")
-                .isSystemMessage(true)
-                .build();
-
-        messageRepository.save(leaveMessage);
+        messageWriter.appendSystemMessage(participant.getMeetingRoom().getId(),
+                participant.getParticipantName() + " left the meeting");
 
         // Check if meeting should be ended
-        long activeParticipants = participantRepository.countActiveParticipants(roomId);
-        if (activeParticipants == 0) {
+        if (presenceRegistry.isConnected(roomId, participantId)) {
+            onRollback(() -> presenceRegistry.restore(roomId, participantId));
+        }
+        if (presenceRegistry.leave(roomId, participantId) == 0) {
             endMeeting(roomId);
         }
 
@@ -198,20 +198,14 @@ public class MeetingRoomService {
         MeetingRoom meetingRoom = meetingRoomRepository.findByRoomId(roomId)
                 .orElseThrow(() -> new RuntimeException("Meeting room not found: " + roomId));
 
+        LocalDateTime now = LocalDateTime.now();
         meetingRoom.setStatus(MeetingRoom.RoomStatus.ENDED);
-        meetingRoom.setActualEndTime(LocalDateTime.now());
+        meetingRoom.setActualEndTime(now);
         meetingRoomRepository.save(meetingRoom);
 
-        // Update all connected participants to disconnected
-        List<MeetingParticipant> activeParticipants = participantRepository
-                .findActiveParticipants(roomId);
-
-        for (MeetingParticipant participant : activeParticipants) {
-            participant.setStatus(MeetingParticipant.ParticipantStatus.LEFT);
-            participant.setLeftAt(LocalDateTime.now());
-        }
-
-        participantRepository.saveAll(activeParticipants);
+        // Mark all connected participants as left
+        participantRepository.markConnectedLeft(List.of(meetingRoom.getId()), now);
+        eventPublisher.publishEvent(new MeetingsEndedEvent(List.of(roomId)));
 
         log.info("Meeting room ended successfully: {}", roomId);
     }
@@ -224,19 +218,23 @@ public class MeetingRoomService {
         return participantRepository.findActiveParticipants(roomId);
     }
 
-    public List<MeetingMessage> getMeetingMessages(String roomId) {
-        return messageRepository.findByMeetingRoomRoomIdOrderByCreatedAtAsc(roomId);
+    /**
+     * A page of the room's messages; the latest page of an active room comes from memory.
+     *
+     * @param before the {@code nextCursor} of the previous page, or {@code null} for the latest page
+     */
+    public MeetingMessagePage getMeetingMessages(String roomId, String before, int limit, boolean includeSystem) {
+        return messageHistory.getPage(roomId, before, limit, includeSystem);
     }
 
-    @Transactional
-    public MeetingMessage saveMessage(String roomId, String senderId, String senderName, 
-                                    MeetingParticipant.ParticipantRole senderRole, String content, 
-                                    MeetingMessage.MessageType messageType) {
-        MeetingRoom meetingRoom = meetingRoomRepository.findByRoomId(roomId)
-                .orElseThrow(() -> new RuntimeException("Meeting room not found: " + roomId));
-
+    /**
+     * Queues the message on the {@link MeetingMessageWriter}; it is written with the next batch.
+     * Live chat is sent over signaling and queued there, this is for messages posted any other way.
+     */
+    public void saveMessage(String roomId, String senderId, String senderName,
+                            MeetingParticipant.ParticipantRole senderRole, String content,
+                            MeetingMessage.MessageType messageType) {
         MeetingMessage message = MeetingMessage.builder()
-                .meetingRoom(meetingRoom)
                 .senderId(senderId)
                 .senderName(senderName)
                 .senderRole(senderRole)
@@ -245,21 +243,35 @@ public class MeetingRoomService {
                 .isSystemMessage(false)
                 .build();
 
-        return messageRepository.save(message);
+        messageWriter.appendMessage(roomId, message);
     }
 
-    @Transactional
-    public void cleanupExpiredMeetings() {
+    /**
+     * Ends expired meetings now rather than waiting for the next run of the {@link MeetingCleanupJob}.
+     *
+     * @return the number of meetings ended
+     */
+    public int cleanupExpiredMeetings() {
         log.info("Cleaning up expired meetings");
-        
-        List<MeetingRoom> expiredMeetings = meetingRoomRepository
-                .findExpiredActiveMeetings(LocalDateTime.now());
+        return meetingCleanupJob.endExpiredMeetings();
+    }
 
-        for (MeetingRoom meeting : expiredMeetings) {
-            endMeeting(meeting.getRoomId());
-        }
+    private MeetingRoomResponse toResponse(MeetingRoom meetingRoom) {
+        return MeetingRoomResponse.fromEntity(meetingRoom, presenceRegistry.getConnectedCount(meetingRoom.getRoomId()));
+    }
 
-        log.info("Cleaned up {} expired meetings", expiredMeetings.size());
+    private static void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    compensation.run();
+                }
+            }
+        });
     }
 
     public boolean isValidMeetingRoom(String roomId) {
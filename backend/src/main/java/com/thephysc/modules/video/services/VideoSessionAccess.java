@@ -0,0 +1,71 @@
+package com.thephysc.modules.video.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thephysc.core.events.VideoSessionsPreparedEvent;
+import com.thephysc.core.repositories.VideoSessionRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Who may join each video session, by session id, so issuing join info for a known session needs
+ * no database access. Sessions are added when they are prepared ahead of their appointments, and
+ * any other session is read with one query on its first join. Entries are per node and expire
+ * {@code video.sessions.access-ttl-minutes} after they were loaded, which bounds how long a
+ * reassigned appointment keeps admitting its previous doctor.
+ */
+@Component
+public class VideoSessionAccess {
+
+    private final VideoSessionRepository videoSessionRepository;
+    private final Cache<String, Participants> bySession;
+
+    public VideoSessionAccess(
+            VideoSessionRepository videoSessionRepository,
+            @Value("${video.sessions.access-cache-size:50000}") long cacheSize,
+            @Value("${video.sessions.access-ttl-minutes:30}") long ttlMinutes) {
+        this.videoSessionRepository = videoSessionRepository;
+        this.bySession = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoSessionsPrepared(VideoSessionsPreparedEvent event) {
+        for (VideoSessionsPreparedEvent.PreparedSession session : event.getSessions()) {
+            bySession.put(session.getSessionId(), new Participants(
+                    session.getDoctorUserId(), session.getDoctorEmail(),
+                    session.getPatientUserId(), session.getPatientEmail()));
+        }
+    }
+
+    /**
+     * @return the session's participants, or {@code null} if there is no such session or it does
+     * not belong to a consultation
+     */
+    Participants get(String sessionId) {
+        return bySession.get(sessionId, id -> videoSessionRepository.findParticipantsBySessionId(id)
+                .map(row -> new Participants(row.getDoctorUserId(), row.getDoctorEmail(),
+                        row.getPatientUserId(), row.getPatientEmail()))
+                .orElse(null));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Participants {
+        private final Long doctorUserId;
+        private final String doctorEmail;
+        private final Long patientUserId;
+        private final String patientEmail;
+
+        boolean includes(String email) {
+            return email.equals(doctorEmail) || email.equals(patientEmail);
+        }
+    }
+}
@@ -28,6 +28,7 @@ public class VideoSessionService {
     private final ConsultationRepository consultationRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final VideoSessionAccess videoSessionAccess;
     
     // In a production environment, these would be populated from environment variables or config
     @Value("${video.twilio.account-sid:}")
@@ -46,11 +47,13 @@ public class VideoSessionService {
             VideoSessionRepository videoSessionRepository,
             ConsultationRepository consultationRepository,
             DoctorRepository doctorRepository,
-            PatientRepository patientRepository) {
+            PatientRepository patientRepository,
+            VideoSessionAccess videoSessionAccess) {
         this.videoSessionRepository = videoSessionRepository;
         this.consultationRepository = consultationRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
+        this.videoSessionAccess = videoSessionAccess;
     }
 
     public VideoSessionDto getVideoSession(String sessionId) {
@@ -83,6 +86,31 @@ public class VideoSessionService {
         // Check user access
         checkVideoSessionAccess(videoSession);
         
+        VideoTokenResponse response = newToken(sessionId, identity);
+        
+        // Update last access time
+        videoSession.setLastAccessedAt(LocalDateTime.now());
+        videoSessionRepository.save(videoSession);
+        
+        return response;
+    }
+    
+    /**
+     * Issues a token for joining the session. The participants are read once per session, with a
+     * single query, and cached; nothing is written.
+     */
+    public VideoTokenResponse issueJoinToken(String sessionId, String identity) {
+        VideoSessionAccess.Participants participants = videoSessionAccess.get(sessionId);
+        if (participants == null) {
+            throw new EntityNotFoundException("Video session not found");
+        }
+        if (!participants.includes(identity)) {
+            throw new AccessDeniedException("You are not a participant of this video session");
+        }
+        return newToken(sessionId, identity);
+    }
+    
+    private VideoTokenResponse newToken(String sessionId, String identity) {
         String token = "";
         
         // In a real implementation, we would use Twilio SDK to generate a token
@@ -104,11 +132,6 @@ public class VideoSessionService {
         response.setSessionId(sessionId);
         response.setIdentity(identity);
         response.setProvider(videoProvider);
-        
-        // Update last access time
-        videoSession.setLastAccessedAt(LocalDateTime.now());
-        videoSessionRepository.save(videoSession);
-        
         return response;
     }
     
@@ -3,27 +3,31 @@ package com.thephysc.modules.video.services;
 import com.thephysc.core.entities.VideoSession;
 import com.thephysc.core.repositories.VideoSessionRepository;
 import com.thephysc.modules.video.dto.WebRTCConfigDto;
-import com.thephysc.modules.video.dto.SignalingMessageDto;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.CloseStatus;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketSession;
 
-import java.io.IOException;
+import javax.annotation.PreDestroy;
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Service for handling WebRTC connections.
- * This service manages peer connections, ICE candidates, and signaling.
+ * Service for WebRTC connection settings.
+ * Signaling itself is routed by {@link com.thephysc.modules.video.signaling.SignalingEngine}.
  */
+@Slf4j
 @Service
 public class WebRTCService {
 
+    private static final int ACCESS_FLUSH_CHUNK_SIZE = 500;
+
     private final VideoSessionRepository videoSessionRepository;
-    private final Map<String, Map<String, WebSocketSession>> sessions = new ConcurrentHashMap<>();
+    // Sessions connected to since the last flush
+    private final Set<String> accessedSessions = ConcurrentHashMap.newKeySet();
     
     @Value("${video.stun.urls:stun:stun.l.google.com:19302}")
     private String stunUrls;
@@ -65,101 +69,40 @@ public class WebRTCService {
     }
 
     /**
-     * Register a new WebSocket session for a specific video session
+     * Notes that a participant connected for signaling. The video session's last accessed time is
+     * written by the next flush, so connecting never waits for the database and a burst of joins
+     * costs one update per chunk of sessions.
      */
-    public void registerSession(String sessionId, String participantId, WebSocketSession webSocketSession) {
-        sessions.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>())
-                .put(participantId, webSocketSession);
-        
-        // Update video session last accessed time
-        videoSessionRepository.findBySessionId(sessionId).ifPresent(videoSession -> {
-            videoSession.setLastAccessedAt(LocalDateTime.now());
-            videoSessionRepository.save(videoSession);
-        });
-        
-        // Notify other participants about the new user
-        notifyNewParticipant(sessionId, participantId);
+    public void recordSessionAccess(String sessionId) {
+        accessedSessions.add(sessionId);
     }
 
-    /**
-     * Handle WebRTC signaling message (offer, answer, ice candidate)
-     */
-    public void handleSignalingMessage(SignalingMessageDto message) throws IOException {
-        Map<String, WebSocketSession> sessionParticipants = sessions.get(message.getSessionId());
-        
-        if (sessionParticipants != null && sessionParticipants.containsKey(message.getTo())) {
-            WebSocketSession recipientSession = sessionParticipants.get(message.getTo());
-            
-            if (recipientSession.isOpen()) {
-                recipientSession.sendMessage(new TextMessage(message.toJson()));
-            }
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${video.signaling.access-flush-interval-ms:5000}")
+    public void flushSessionAccess() {
+        if (accessedSessions.isEmpty()) {
+            return;
         }
-    }
-
-    /**
-     * Handle WebSocket session closed
-     */
-    public void handleSessionClosed(String sessionId, String participantId, CloseStatus status) {
-        Map<String, WebSocketSession> sessionParticipants = sessions.get(sessionId);
-        
-        if (sessionParticipants != null) {
-            sessionParticipants.remove(participantId);
-            
-            // If no participants left, remove the session
-            if (sessionParticipants.isEmpty()) {
-                sessions.remove(sessionId);
-            } else {
-                // Notify other participants that someone left
-                notifyParticipantLeft(sessionId, participantId);
+        List<String> chunk = new ArrayList<>(ACCESS_FLUSH_CHUNK_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+        for (String sessionId : accessedSessions) {
+            accessedSessions.remove(sessionId);
+            chunk.add(sessionId);
+            if (chunk.size() == ACCESS_FLUSH_CHUNK_SIZE) {
+                updateLastAccessed(chunk, now);
+                chunk.clear();
             }
         }
-    }
-
-    private void notifyNewParticipant(String sessionId, String participantId) {
-        Map<String, WebSocketSession> sessionParticipants = sessions.get(sessionId);
-        
-        if (sessionParticipants != null) {
-            SignalingMessageDto joinMessage = new SignalingMessageDto(
-                    sessionId, 
-                    "system", 
-                    null, 
-                    "new-participant", 
-                    participantId);
-            
-            sessionParticipants.forEach((id, session) -> {
-                if (!id.equals(participantId) && session.isOpen()) {
-                    try {
-                        joinMessage.setTo(id);
-                        session.sendMessage(new TextMessage(joinMessage.toJson()));
-                    } catch (IOException e) {
-                        // Log error
-                    }
-                }
-            });
+        if (!chunk.isEmpty()) {
+            updateLastAccessed(chunk, now);
         }
     }
 
-    private void notifyParticipantLeft(String sessionId, String participantId) {
-        Map<String, WebSocketSession> sessionParticipants = sessions.get(sessionId);
-        
-        if (sessionParticipants != null) {
-            SignalingMessageDto leaveMessage = new SignalingMessageDto(
-                    sessionId, 
-                    "system", 
-                    null, 
-                    "participant-left", 
-                    participantId);
-            
-            sessionParticipants.forEach((id, session) -> {
-                if (session.isOpen()) {
-                    try {
-                        leaveMessage.setTo(id);
-                        session.sendMessage(new TextMessage(leaveMessage.toJson()));
-                    } catch (IOException e) {
-                        // Log error
-                    }
-                }
-            });
+    private void updateLastAccessed(List<String> sessionIds, LocalDateTime accessedAt) {
+        try {
+            videoSessionRepository.updateLastAccessedAt(sessionIds, accessedAt);
+        } catch (RuntimeException e) {
+            log.warn("Could not record access to {} video sessions: {}", sessionIds.size(), e.getMessage());
         }
     }
 }
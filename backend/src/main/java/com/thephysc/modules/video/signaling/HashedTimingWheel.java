@@ -0,0 +1,125 @@
+package com.thephysc.modules.video.signaling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hashed timing wheel: timeouts are hashed by deadline into a fixed ring of buckets and one
+ * ticker thread visits a single bucket per tick, so scheduling and cancelling cost O(1) and
+ * expiry never scans every pending timeout. Deadlines are rounded up to the tick.
+ * <p>
+ * Timeouts are handed to the ticker through a concurrent queue and the buckets are only touched
+ * by the ticker thread. Expired tasks run on the ticker thread and must not block.
+ */
+@Slf4j
+class HashedTimingWheel {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread ticker;
+    private final long startedAt;
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(String name, long tick, TimeUnit unit, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.mask = wheelSize - 1;
+        this.buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.startedAt = System.nanoTime();
+        this.ticker = new Thread(this::run, name);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() - startedAt + unit.toNanos(delay));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    void stop() {
+        running = false;
+        ticker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long tickDeadline = (tick + 1) * tickNanos;
+            long sleepNanos = tickDeadline - (System.nanoTime() - startedAt);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            transferPending(tick);
+            expire(buckets[(int) (tick & mask)], tickDeadline);
+            tick++;
+        }
+    }
+
+    private void transferPending(long currentTick) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Ceiling, and never in the past, so a timeout never fires early or is skipped
+            long targetTick = Math.max((timeout.deadline + tickNanos - 1) / tickNanos - 1, currentTick);
+            timeout.remainingRounds = (targetTick - currentTick) / buckets.length;
+            buckets[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket, long tickDeadline) {
+        for (Iterator<Timeout> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else if (timeout.deadline <= tickDeadline) {
+                it.remove();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Timing wheel task failed", e);
+                }
+            }
+        }
+    }
+
+    static final class Timeout {
+        private final Runnable task;
+        private final long deadline; // nanos since the wheel started
+        private long remainingRounds; // ticker thread only
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * The timeout is dropped the next time the ticker reaches its bucket.
+         */
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.thephysc.modules.video.signaling;
+
+import com.thephysc.modules.video.dto.SignalingMessageDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Batches trickle-ICE candidates travelling between the same two participants.
+ * <p>
+ * A batch is flushed once no candidate has arrived for the coalescing window, but never later
+ * than the maximum delay after its first candidate, so connection setup is delayed by at most
+ * that bound. A batch of one goes out as a plain {@code ice-candidate} frame; larger batches as
+ * one {@code ice-candidates} frame whose {@code data} is the array of candidates in arrival order,
+ * which clients must apply one by one like single candidates. A coalescing window of 0 turns
+ * batching off for clients that cannot.
+ */
+@Component
+public class IceCandidateCoalescer {
+
+    static final String CANDIDATE_TYPE = "ice-candidate";
+    static final String BATCH_TYPE = "ice-candidates";
+
+    private final long windowNanos;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Map<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+
+    private final Counter framesSaved;
+    private final DistributionSummary batchSizes;
+
+    public IceCandidateCoalescer(
+            MeterRegistry meterRegistry,
+            @Value("${video.signaling.ice.coalesce-window-ms:15}") long windowMs,
+            @Value("${video.signaling.ice.max-delay-ms:50}") long maxDelayMs,
+            @Value("${video.signaling.ice.max-batch-size:32}") int maxBatchSize) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxDelayMs, windowMs));
+        this.maxBatchSize = maxBatchSize;
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "signaling-ice-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+
+        this.framesSaved = Counter.builder("signaling.ice.frames.saved")
+                .description("ICE candidate frames avoided by batching")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("signaling.ice.batch.size")
+                .description("Candidates per flushed ICE batch")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return windowNanos > 0;
+    }
+
+    /**
+     * Adds a candidate to the batch for its sender and recipient.
+     *
+     * @param sink delivers the flushed frame; called from the coalescer's thread
+     */
+    void add(SignalingMessageDto candidate, Consumer<SignalingMessageDto> sink) {
+        BatchKey key = new BatchKey(candidate.getSessionId(), candidate.getFrom(), candidate.getTo());
+        long now = System.nanoTime();
+        boolean[] created = new boolean[1];
+        Batch batch = batches.compute(key, (k, existing) -> {
+            Batch target = existing;
+            if (target == null) {
+                target = new Batch(now, sink);
+                created[0] = true;
+            }
+            target.add(candidate.getData(), now);
+            return target;
+        });
+
+        if (batch.size() >= maxBatchSize) {
+            if (batches.remove(key, batch)) {
+                flush(key, batch);
+            }
+        } else if (created[0]) {
+            scheduler.schedule(() -> checkDue(key, batch), windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        batches.forEach((key, batch) -> {
+            if (batches.remove(key, batch)) {
+                flush(key, batch);
+            }
+        });
+    }
+
+    private void checkDue(BatchKey key, Batch batch) {
+        long now = System.nanoTime();
+        long dueAt = Math.min(batch.lastAt + windowNanos, batch.firstAt + maxDelayNanos);
+        if (now - dueAt >= 0) {
+            if (batches.remove(key, batch)) {
+                flush(key, batch);
+            }
+        } else {
+            scheduler.schedule(() -> checkDue(key, batch), dueAt - now, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flush(BatchKey key, Batch batch) {
+        List<Object> candidates = batch.candidates;
+        SignalingMessageDto frame = candidates.size() == 1
+                ? new SignalingMessageDto(key.sessionId, key.from, key.to, CANDIDATE_TYPE, candidates.get(0))
+                : new SignalingMessageDto(key.sessionId, key.from, key.to, BATCH_TYPE, candidates);
+        batchSizes.record(candidates.size());
+        framesSaved.increment(candidates.size() - 1);
+        batch.sink.accept(frame);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class BatchKey {
+        private final String sessionId;
+        private final String from;
+        private final String to;
+    }
+
+    private static final class Batch {
+        private final long firstAt;
+        private final Consumer<SignalingMessageDto> sink;
+        // Only mutated inside batches.compute, and read after the batch has been removed
+        private final List<Object> candidates = new ArrayList<>();
+        private volatile long lastAt;
+
+        private Batch(long firstAt, Consumer<SignalingMessageDto> sink) {
+            this.firstAt = firstAt;
+            this.sink = sink;
+        }
+
+        private void add(Object candidate, long arrivedAt) {
+            candidates.add(candidate);
+            lastAt = arrivedAt;
+        }
+
+        private int size() {
+            return candidates.size();
+        }
+    }
+}
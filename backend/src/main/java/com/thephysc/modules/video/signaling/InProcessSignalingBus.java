@@ -0,0 +1,46 @@
+package com.thephysc.modules.video.signaling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus for a single node: every participant is connected to this JVM, so there is nobody to
+ * forward to and envelopes published here are not delivered back to their origin.
+ */
+@Component
+@ConditionalOnProperty(name = "video.signaling.bus", havingValue = "in-process", matchIfMissing = true)
+public class InProcessSignalingBus implements SignalingBus {
+
+    private final String nodeId;
+    private final List<Consumer<SignalingEnvelope>> listeners = new CopyOnWriteArrayList<>();
+
+    public InProcessSignalingBus(@Value("${video.signaling.node-id:}") String nodeId) {
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(SignalingEnvelope envelope) {
+        if (nodeId.equals(envelope.getOriginNode())) {
+            return;
+        }
+        for (Consumer<SignalingEnvelope> listener : listeners) {
+            listener.accept(envelope);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<SignalingEnvelope> listener) {
+        listeners.add(listener);
+    }
+}
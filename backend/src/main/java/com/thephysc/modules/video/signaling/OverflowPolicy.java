@@ -0,0 +1,23 @@
+package com.thephysc.modules.video.signaling;
+
+/**
+ * What a connection's outbound queue does with a frame that does not fit.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Evict the oldest queued frame of the same kind, e.g. an ICE candidate that is already stale.
+     * Falls back to {@link #CLOSE} when no frame of that kind is queued.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discard the new frame.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Close the connection; the client is expected to reconnect and renegotiate.
+     */
+    CLOSE
+}
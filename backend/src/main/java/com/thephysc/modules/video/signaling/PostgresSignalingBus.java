@@ -0,0 +1,261 @@
+package com.thephysc.modules.video.signaling;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bus shared by every node connected to the same PostgreSQL database, using {@code LISTEN/NOTIFY}.
+ * <p>
+ * A notification payload is {@code originNode|targetNode|envelope}, with {@code *} as the target
+ * of a broadcast, so nodes discard envelopes that are not theirs without parsing them. Envelopes
+ * too large for a notification are stored in the {@code signaling_spill} table, created by the
+ * V8 migration, and the payload carries {@code #id} instead. Each node listens on its own dedicated connection, outside the
+ * pool, and reconnects if it is lost; notifications sent while a node is disconnected are not
+ * replayed to it.
+ */
+@Slf4j
+@Component
+@DependsOn("schemaMigrations")
+@ConditionalOnProperty(name = "video.signaling.bus", havingValue = "postgres")
+public class PostgresSignalingBus implements SignalingBus {
+
+    // PostgreSQL rejects notification payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final String BROADCAST = "*";
+    private static final char SEPARATOR = '|';
+    private static final char SPILL_MARKER = '#';
+
+    private final String nodeId;
+    private final String channel;
+    private final long pollTimeoutMs;
+    private final long spillRetentionMs;
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final List<Consumer<SignalingEnvelope>> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "signaling-bus-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter published;
+    private final Counter received;
+    private final Counter spilled;
+
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listenerThread;
+
+    public PostgresSignalingBus(
+            DataSourceProperties dataSourceProperties,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${video.signaling.node-id:}") String nodeId,
+            @Value("${video.signaling.postgres.channel:video_signaling}") String channel,
+            @Value("${video.signaling.postgres.poll-timeout-ms:500}") long pollTimeoutMs,
+            @Value("${video.signaling.postgres.spill-retention-ms:60000}") long spillRetentionMs) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid signaling channel name: " + channel);
+        }
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        if (this.nodeId.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Signaling node id must not contain '" + SEPARATOR + "'");
+        }
+        this.channel = channel;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.spillRetentionMs = spillRetentionMs;
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.published = Counter.builder("signaling.bus.envelopes")
+                .description("Envelopes exchanged with other signaling nodes")
+                .tag("direction", "published")
+                .register(meterRegistry);
+        this.received = Counter.builder("signaling.bus.envelopes")
+                .description("Envelopes exchanged with other signaling nodes")
+                .tag("direction", "received")
+                .register(meterRegistry);
+        this.spilled = Counter.builder("signaling.bus.spilled")
+                .description("Envelopes too large for a notification, passed through signaling_spill")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "signaling-bus-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        log.info("Signaling node {} listening on channel {}", nodeId, channel);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        publisher.shutdown();
+        publisher.awaitTermination(5, TimeUnit.SECONDS);
+        closeQuietly(listenConnection);
+        if (listenerThread != null) {
+            listenerThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(SignalingEnvelope envelope) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(envelope);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode signaling envelope " + envelope.getKind(), e);
+        }
+        String target = envelope.getTargetNode() != null ? envelope.getTargetNode() : BROADCAST;
+        String header = nodeId + SEPARATOR + target + SEPARATOR;
+        publisher.execute(() -> {
+            try {
+                String payload = header + body;
+                if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                    Long id = jdbcTemplate.queryForObject(
+                            "INSERT INTO signaling_spill (payload) VALUES (?) RETURNING id", Long.class, body);
+                    payload = header + SPILL_MARKER + id;
+                    spilled.increment();
+                }
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload);
+                published.increment();
+            } catch (RuntimeException e) {
+                log.warn("Could not publish signaling {} for session {}: {}",
+                        envelope.getKind(), envelope.getSessionId(), e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<SignalingEnvelope> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${video.signaling.postgres.spill-retention-ms:60000}")
+    public void purgeSpill() {
+        int purged = jdbcTemplate.update(
+                "DELETE FROM signaling_spill WHERE created_at < now() - (? * interval '1 millisecond')",
+                spillRetentionMs);
+        if (purged > 0) {
+            log.debug("Purged {} spilled signaling envelopes", purged);
+        }
+    }
+
+    private void listen() {
+        long backoffMs = 500;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                backoffMs = 500;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Signaling bus connection lost, reconnecting in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 10_000);
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        int originEnd = payload.indexOf(SEPARATOR);
+        int targetEnd = originEnd < 0 ? -1 : payload.indexOf(SEPARATOR, originEnd + 1);
+        if (targetEnd < 0) {
+            log.warn("Ignoring malformed signaling notification");
+            return;
+        }
+        if (payload.regionMatches(0, nodeId, 0, originEnd) && originEnd == nodeId.length()) {
+            return;
+        }
+        String target = payload.substring(originEnd + 1, targetEnd);
+        if (!BROADCAST.equals(target) && !nodeId.equals(target)) {
+            return;
+        }
+        try {
+            String body = payload.substring(targetEnd + 1);
+            if (!body.isEmpty() && body.charAt(0) == SPILL_MARKER) {
+                List<String> stored = jdbcTemplate.queryForList(
+                        "SELECT payload FROM signaling_spill WHERE id = ?", String.class,
+                        Long.parseLong(body.substring(1)));
+                if (stored.isEmpty()) {
+                    log.warn("Spilled signaling envelope {} has already been purged", body);
+                    return;
+                }
+                body = stored.get(0);
+            }
+            SignalingEnvelope envelope = objectMapper.readValue(body, SignalingEnvelope.class);
+            received.increment();
+            for (Consumer<SignalingEnvelope> listener : listeners) {
+                listener.accept(envelope);
+            }
+        } catch (Exception e) {
+            log.warn("Could not handle signaling notification: {}", e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Closing only interrupts the listener's wait
+        }
+    }
+}
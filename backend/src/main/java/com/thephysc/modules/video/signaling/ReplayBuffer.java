@@ -0,0 +1,71 @@
+package com.thephysc.modules.video.signaling;
+
+import com.thephysc.modules.video.signaling.SignalingConnection.FrameKind;
+import org.springframework.web.socket.TextMessage;
+
+/**
+ * Fixed-size ring of the frames addressed to a disconnected participant, oldest first.
+ * Once full, each new frame overwrites the oldest one.
+ */
+class ReplayBuffer {
+
+    private final TextMessage[] messages;
+    private final FrameKind[] kinds;
+    private final String[] coalesceKeys;
+    private int head;
+    private int size;
+    private int overwritten;
+
+    ReplayBuffer(int capacity) {
+        this.messages = new TextMessage[capacity];
+        this.kinds = new FrameKind[capacity];
+        this.coalesceKeys = new String[capacity];
+    }
+
+    synchronized void add(TextMessage message, FrameKind kind, String coalesceKey) {
+        if (messages.length == 0) {
+            overwritten++;
+            return;
+        }
+        int index = (head + size) % messages.length;
+        if (size == messages.length) {
+            head = (head + 1) % messages.length;
+            overwritten++;
+        } else {
+            size++;
+        }
+        messages[index] = message;
+        kinds[index] = kind;
+        coalesceKeys[index] = coalesceKey;
+    }
+
+    /**
+     * Queues every buffered frame on the connection in order and empties the buffer.
+     *
+     * @return the number of frames replayed
+     */
+    synchronized int replayTo(SignalingConnection connection) {
+        int replayed = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % messages.length;
+            if (connection.enqueue(messages[index], kinds[index], coalesceKeys[index])) {
+                replayed++;
+            }
+            messages[index] = null;
+        }
+        head = 0;
+        size = 0;
+        return replayed;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return how many frames were lost because the buffer was full
+     */
+    synchronized int getOverwritten() {
+        return overwritten;
+    }
+}
@@ -0,0 +1,30 @@
+package com.thephysc.modules.video.signaling;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries signaling between the application nodes serving the same video session.
+ * <p>
+ * Each node publishes the joins and leaves of its own participants and the frames addressed to
+ * participants connected elsewhere; the {@link SignalingEngine} delivers everything it can
+ * locally and only uses the bus for the rest. Implementations are selected with
+ * {@code video.signaling.bus}.
+ */
+public interface SignalingBus {
+
+    /**
+     * Identifies this node in the envelopes it publishes.
+     */
+    String getNodeId();
+
+    /**
+     * Sends the envelope to the other nodes, or only to {@link SignalingEnvelope#getTargetNode()}
+     * when it is set. Must not block the caller on I/O.
+     */
+    void publish(SignalingEnvelope envelope);
+
+    /**
+     * Registers the receiver of envelopes published by other nodes.
+     */
+    void subscribe(Consumer<SignalingEnvelope> listener);
+}
@@ -0,0 +1,246 @@
+package com.thephysc.modules.video.signaling;
+
+import com.thephysc.modules.video.dto.SignalingNodeDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the nodes serving signaling and assigns every video session or meeting room to one of
+ * them with a consistent-hash ring, so all participants of a session can be sent to the same node
+ * and their signaling stays node-local.
+ * <p>
+ * Nodes announce themselves with heartbeats over the {@link SignalingBus} and drop out when they
+ * shut down or stop sending heartbeats. When membership changes only the sessions on the ring
+ * segments of the joining or leaving node change owner; participants already connected elsewhere
+ * keep working through the bus.
+ */
+@Slf4j
+@Component
+public class SignalingCluster {
+
+    static final String SIGNALING_PATH = "/api/ws/rtc";
+
+    private final SignalingBus bus;
+    private final String nodeId;
+    private final String advertisedUrl;
+    private final int virtualNodes;
+    private final long nodeTimeoutNanos;
+
+    // nodeId -> member, including this node
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    private volatile Ring ring;
+    private volatile long generation;
+
+    public SignalingCluster(
+            SignalingBus bus,
+            MeterRegistry meterRegistry,
+            @Value("${video.signaling.cluster.advertised-url:}") String advertisedUrl,
+            @Value("${video.signaling.cluster.virtual-nodes:128}") int virtualNodes,
+            @Value("${video.signaling.cluster.node-timeout-ms:6000}") long nodeTimeoutMs) {
+        this.bus = bus;
+        this.nodeId = bus.getNodeId();
+        this.advertisedUrl = stripTrailingSlash(advertisedUrl);
+        this.virtualNodes = virtualNodes;
+        this.nodeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(nodeTimeoutMs);
+        members.put(nodeId, new Member(this.advertisedUrl, System.nanoTime()));
+        this.ring = buildRing();
+        Gauge.builder("signaling.cluster.nodes", members, Map::size)
+                .description("Nodes on the signaling hash ring")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        bus.subscribe(this::onEnvelope);
+        heartbeat();
+    }
+
+    @PreDestroy
+    public void stop() {
+        bus.publish(SignalingEnvelope.membership(SignalingEnvelope.Kind.NODE_LEFT, nodeId, null));
+    }
+
+    @Scheduled(fixedRateString = "${video.signaling.cluster.heartbeat-ms:2000}")
+    public void heartbeat() {
+        bus.publish(SignalingEnvelope.membership(SignalingEnvelope.Kind.HEARTBEAT, nodeId, advertisedUrl));
+        long now = System.nanoTime();
+        members.put(nodeId, new Member(advertisedUrl, now));
+        boolean expired = members.entrySet().removeIf(entry -> !entry.getKey().equals(nodeId)
+                && now - entry.getValue().lastSeen > nodeTimeoutNanos);
+        if (expired) {
+            rebalance("a node stopped sending heartbeats");
+        }
+    }
+
+    /**
+     * @return the id of the node that owns the session or meeting room
+     */
+    public String ownerOf(String sessionId) {
+        return ring.ownerOf(sessionId);
+    }
+
+    public boolean isLocal(String sessionId) {
+        return nodeId.equals(ownerOf(sessionId));
+    }
+
+    /**
+     * Changes whenever the ring is rebuilt, so state kept for the sessions a node owns can tell
+     * that ownership may have moved since it was loaded.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * The signaling endpoint on the node that owns the session, without the token parameter.
+     * Relative when that node has not advertised a URL, as in a single-node deployment, and an
+     * absolute {@code ws:} or {@code wss:} URL otherwise, which clients must use as it is.
+     */
+    public String webSocketUrl(String sessionId) {
+        Member owner = members.get(ownerOf(sessionId));
+        String base = owner != null ? owner.url : advertisedUrl;
+        return base + SIGNALING_PATH + "?sessionId=" + sessionId;
+    }
+
+    /**
+     * The HTTP base URL, without the context path, of the node that owns the session when that is
+     * another node that has advertised a URL; empty when this node should answer for it.
+     */
+    public Optional<String> remoteOwnerUrl(String sessionId) {
+        String owner = ownerOf(sessionId);
+        Member member = nodeId.equals(owner) ? null : members.get(owner);
+        if (member == null || member.url.isEmpty()) {
+            return Optional.empty();
+        }
+        // ws: becomes http: and wss: https:
+        return Optional.of(member.url.replaceFirst("^ws", "http"));
+    }
+
+    public List<SignalingNodeDto> getNodes() {
+        List<SignalingNodeDto> nodes = new ArrayList<>();
+        long now = System.nanoTime();
+        members.forEach((id, member) -> nodes.add(new SignalingNodeDto(id, member.url, id.equals(nodeId),
+                Instant.now().minusNanos(now - member.lastSeen))));
+        nodes.sort(Comparator.comparing(SignalingNodeDto::getNodeId));
+        return nodes;
+    }
+
+    private void onEnvelope(SignalingEnvelope envelope) {
+        if (!envelope.getKind().isMembership() || nodeId.equals(envelope.getOriginNode())) {
+            return;
+        }
+        String origin = envelope.getOriginNode();
+        if (envelope.getKind() == SignalingEnvelope.Kind.NODE_LEFT) {
+            if (members.remove(origin) != null) {
+                rebalance("node " + origin + " left");
+            }
+            return;
+        }
+        String url = stripTrailingSlash(envelope.getNodeUrl());
+        Member previous = members.put(origin, new Member(url, System.nanoTime()));
+        if (previous == null) {
+            rebalance("node " + origin + " joined");
+            // Let the new node learn about this one without waiting for the next heartbeat
+            bus.publish(SignalingEnvelope.membership(SignalingEnvelope.Kind.HEARTBEAT, nodeId, advertisedUrl));
+        } else if (!previous.url.equals(url)) {
+            rebalance("node " + origin + " moved to " + url);
+        }
+    }
+
+    private synchronized void rebalance(String reason) {
+        ring = buildRing();
+        generation++;
+        log.info("Signaling ring rebuilt with {} node(s): {}", members.size(), reason);
+    }
+
+    private Ring buildRing() {
+        List<String> nodeIds = new ArrayList<>(members.keySet());
+        nodeIds.sort(null);
+        int size = nodeIds.size() * virtualNodes;
+        long[][] points = new long[size][2];
+        int i = 0;
+        for (int n = 0; n < nodeIds.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                points[i][0] = hash(nodeIds.get(n) + '#' + v);
+                points[i][1] = n;
+                i++;
+            }
+        }
+        Arrays.sort(points, Comparator.comparingLong(point -> point[0]));
+        long[] hashes = new long[size];
+        String[] owners = new String[size];
+        for (i = 0; i < size; i++) {
+            hashes[i] = points[i][0];
+            owners[i] = nodeIds.get((int) points[i][1]);
+        }
+        return new Ring(hashes, owners);
+    }
+
+    /**
+     * 64-bit FNV-1a followed by the MurmurHash3 finalizer, so similar session ids spread evenly.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        if (url == null) {
+            return "";
+        }
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static final class Member {
+        private final String url;
+        private final long lastSeen;
+
+        private Member(String url, long lastSeen) {
+            this.url = url;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private static final class Ring {
+        private final long[] hashes;
+        private final String[] owners;
+
+        private Ring(long[] hashes, String[] owners) {
+            this.hashes = hashes;
+            this.owners = owners;
+        }
+
+        private String ownerOf(String key) {
+            int index = Arrays.binarySearch(hashes, hash(key));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return owners[index == hashes.length ? 0 : index];
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.thephysc.modules.video.signaling;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.thephysc.modules.video.dto.SignalingMessageDto;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes signaling frames.
+ * <p>
+ * Decoding streams over the frame and only materializes the routing fields; the {@code data}
+ * payload (SDP, ICE candidates) is kept as the raw JSON text it arrived as and written back
+ * out verbatim. Encoding produces one {@link TextMessage} that can be shared by every recipient.
+ */
+@Component
+public class SignalingCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public SignalingCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @throws IOException if the frame is not a JSON object with a string {@code type}
+     */
+    public SignalingMessageDto decode(String payload) throws IOException {
+        SignalingMessageDto message = new SignalingMessageDto();
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw JsonMappingException.from(parser, "Signaling frame must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "sessionId":
+                        message.setSessionId(textValue(parser));
+                        break;
+                    case "to":
+                        message.setTo(textValue(parser));
+                        break;
+                    case "type":
+                        message.setType(textValue(parser));
+                        break;
+                    case "data":
+                        message.setData(rawValue(parser, payload));
+                        break;
+                    default:
+                        // Includes "from", which the server always stamps itself
+                        parser.skipChildren();
+                }
+            }
+            if (message.getType() == null) {
+                throw JsonMappingException.from(parser, "Signaling frame has no type");
+            }
+        }
+        return message;
+    }
+
+    public TextMessage encode(SignalingMessageDto message) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode signaling message of type " + message.getType(), e);
+        }
+    }
+
+    /**
+     * Parses the {@code data} of a decoded frame, for the few frame types the server has to read.
+     *
+     * @return the payload, or {@code null} if the frame has none
+     * @throws IOException if the payload does not map to the type
+     */
+    public <T> T readData(SignalingMessageDto message, Class<T> type) throws IOException {
+        Object data = message.getData();
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof RawValue) {
+            return objectMapper.readValue(String.valueOf(((RawValue) data).rawValue()), type);
+        }
+        return objectMapper.convertValue(data, type);
+    }
+
+    private static String textValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            throw JsonMappingException.from(parser, "Expected a string for '" + parser.getCurrentName() + "'");
+        }
+        return parser.getText();
+    }
+
+    private static RawValue rawValue(JsonParser parser, String payload) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        int start = (int) parser.getTokenLocation().getCharOffset();
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+        } else {
+            parser.finishToken();
+        }
+        int end = (int) parser.getCurrentLocation().getCharOffset();
+        return new RawValue(payload.substring(start, end));
+    }
+}
@@ -0,0 +1,280 @@
+package com.thephysc.modules.video.signaling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * One participant's WebSocket with a bounded outbound queue.
+ * <p>
+ * Frames are enqueued without blocking the caller and written by the {@link SignalingSender}
+ * executor, at most one drain per connection at a time, so a slow client only delays its own
+ * frames and writes to the same session never run concurrently.
+ */
+@Slf4j
+class SignalingConnection {
+
+    enum FrameKind {
+        CANDIDATE, PRESENCE, CONTROL, CHAT
+    }
+
+    static final CloseStatus OVERFLOW_STATUS = CloseStatus.SESSION_NOT_RELIABLE.withReason("Outbound buffer limit exceeded");
+    static final CloseStatus SEND_FAILED_STATUS = CloseStatus.SESSION_NOT_RELIABLE.withReason("Send failed");
+
+    private final WebSocketSession session;
+    private final SignalingSender sender;
+    private final String resumeToken;
+
+    // Guarded by this
+    private final Deque<Frame> queue = new ArrayDeque<>();
+    private int queuedBytes;
+    private Frame inFlight; // being written, or failed to be
+    private boolean draining;
+    private boolean closed;
+
+    SignalingConnection(WebSocketSession session, SignalingSender sender, String resumeToken) {
+        this.session = session;
+        this.sender = sender;
+        this.resumeToken = resumeToken;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    String getResumeToken() {
+        return resumeToken;
+    }
+
+    boolean isOpen() {
+        return session.isOpen();
+    }
+
+    /**
+     * Queues a frame for delivery.
+     *
+     * @param coalesceKey frames with the same non-null key replace each other while still queued
+     * @return whether the frame was accepted
+     */
+    boolean enqueue(WebSocketMessage<?> message, FrameKind kind, String coalesceKey) {
+        Frame frame = new Frame(message, kind, coalesceKey, System.nanoTime());
+        boolean schedule = false;
+        boolean overflowed = false;
+        synchronized (this) {
+            if (closed || !session.isOpen()) {
+                return false;
+            }
+            if (coalesceKey != null && removeQueued(coalesceKey)) {
+                sender.recordOverflow(kind, "coalesced");
+            }
+            while (!overflowed && !fits(frame)) {
+                OverflowPolicy policy = sender.getPolicy(kind);
+                if (policy == OverflowPolicy.DROP_NEWEST) {
+                    sender.recordOverflow(kind, "dropped");
+                    return false;
+                }
+                if (policy == OverflowPolicy.DROP_OLDEST && removeOldest(kind)) {
+                    sender.recordOverflow(kind, "dropped");
+                } else {
+                    overflowed = true;
+                }
+            }
+            // On overflow the frame is still queued, past the limits, and nothing more is sent: the
+            // close suspends the participant, which moves the queue to its bounded replay buffer
+            closed = overflowed;
+            queue.addLast(frame);
+            queuedBytes += frame.size();
+            sender.frameCountChanged(1);
+            sender.recordQueueDepth(queue.size());
+            if (!overflowed && !draining) {
+                draining = true;
+                schedule = true;
+            }
+        }
+
+        if (overflowed) {
+            sender.recordOverflow(kind, "closed");
+            log.warn("Closing signaling connection {}: outbound buffer limit exceeded", session.getId());
+            closeLater(OVERFLOW_STATUS);
+            return false;
+        }
+        if (schedule) {
+            scheduleDrain();
+        }
+        return true;
+    }
+
+    /**
+     * Queues a WebSocket ping; at most one is queued at a time.
+     */
+    boolean ping() {
+        return enqueue(new PingMessage(), FrameKind.CONTROL, "ping");
+    }
+
+    void close(CloseStatus status) {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Failed to close signaling connection {}", session.getId(), e);
+        }
+    }
+
+    /**
+     * Closes the session on the send threads, since closing may block on a dead socket and the
+     * caller may be the heartbeat's timer thread or another participant's inbound handler.
+     */
+    private void closeLater(CloseStatus status) {
+        try {
+            sender.execute(() -> close(status));
+        } catch (RejectedExecutionException e) {
+            close(status);
+        }
+    }
+
+    /**
+     * Writes up to one batch of frames, then yields the send thread to other connections. Frames
+     * still queued once the connection is closed are left for {@link #moveUndeliveredTo}.
+     */
+    private void drain() {
+        for (int sent = 0; sent < sender.getDrainBatchSize(); sent++) {
+            Frame frame;
+            synchronized (this) {
+                frame = closed ? null : queue.pollFirst();
+                if (frame == null) {
+                    draining = false;
+                    return;
+                }
+                queuedBytes -= frame.size();
+                sender.frameCountChanged(-1);
+                inFlight = frame;
+            }
+            try {
+                session.sendMessage(frame.message);
+                sender.recordSendLatency(System.nanoTime() - frame.enqueuedAt);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Failed to send signaling frame on {}: {}", session.getId(), e.getMessage());
+                sendFailed();
+                return;
+            }
+            synchronized (this) {
+                inFlight = null;
+            }
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Moves the signaling frames still waiting in the queue of a closed connection to the buffer,
+     * so they can be replayed when the participant resumes. When the queue holds more frames than
+     * the buffer, as after an overflow, the oldest are dropped and counted as lost by the buffer.
+     */
+    synchronized void moveUndeliveredTo(ReplayBuffer buffer) {
+        // A frame whose write was cut short by the close is replayed too, though the client may
+        // have received it if the write completed as the connection dropped
+        if (inFlight != null && inFlight.message instanceof TextMessage) {
+            buffer.add((TextMessage) inFlight.message, inFlight.kind, inFlight.coalesceKey);
+        }
+        inFlight = null;
+        for (Frame frame : queue) {
+            if (frame.message instanceof TextMessage) {
+                buffer.add((TextMessage) frame.message, frame.kind, frame.coalesceKey);
+            }
+        }
+        sender.frameCountChanged(-queue.size());
+        queue.clear();
+        queuedBytes = 0;
+    }
+
+    /**
+     * Closes the connection after a send timed out or failed, since the socket may hold a partly
+     * written frame. The close runs the usual disconnect path, which suspends the participant with
+     * the failed frame and the rest of the queue for replay. Tomcat may already have closed the
+     * session inside the failed send, in which case that path has run by now.
+     */
+    private void sendFailed() {
+        synchronized (this) {
+            closed = true;
+            draining = false;
+        }
+        close(SEND_FAILED_STATUS);
+    }
+
+    private void scheduleDrain() {
+        try {
+            sender.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            discardQueued();
+        }
+    }
+
+    synchronized void discardQueued() {
+        inFlight = null;
+        sender.frameCountChanged(-queue.size());
+        queue.clear();
+        queuedBytes = 0;
+        draining = false;
+        closed = true;
+    }
+
+    private boolean fits(Frame frame) {
+        return queue.size() < sender.getQueueCapacity()
+                && queuedBytes + frame.size() <= sender.getBufferSizeLimit();
+    }
+
+    private boolean removeQueued(String coalesceKey) {
+        for (Iterator<Frame> it = queue.iterator(); it.hasNext(); ) {
+            Frame queued = it.next();
+            if (coalesceKey.equals(queued.coalesceKey)) {
+                it.remove();
+                queuedBytes -= queued.size();
+                sender.frameCountChanged(-1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean removeOldest(FrameKind kind) {
+        for (Iterator<Frame> it = queue.iterator(); it.hasNext(); ) {
+            Frame queued = it.next();
+            if (queued.kind == kind) {
+                it.remove();
+                queuedBytes -= queued.size();
+                sender.frameCountChanged(-1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Frame {
+        private final WebSocketMessage<?> message;
+        private final FrameKind kind;
+        private final String coalesceKey;
+        private final long enqueuedAt;
+
+        private Frame(WebSocketMessage<?> message, FrameKind kind, String coalesceKey, long enqueuedAt) {
+            this.message = message;
+            this.kind = Objects.requireNonNull(kind);
+            this.coalesceKey = coalesceKey;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        private int size() {
+            return message.getPayloadLength();
+        }
+    }
+}
@@ -0,0 +1,600 @@
+package com.thephysc.modules.video.signaling;
+
+import com.thephysc.core.events.MeetingsEndedEvent;
+import com.thephysc.modules.video.dto.SignalingMessageDto;
+import com.thephysc.modules.video.signaling.SignalingConnection.FrameKind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes WebRTC signaling between the participants of a video session.
+ * <p>
+ * Offers, answers and ICE candidates are delivered only to the participant named in
+ * {@link SignalingMessageDto#getTo()}; messages without a known recipient are dropped and
+ * reported back to the sender. Only presence events (joins and leaves) and chat go to the whole
+ * room, so signaling traffic grows linearly with the number of peer connections rather than
+ * quadratically with room size.
+ * <p>
+ * Participants of one session may be connected to different nodes. Each room also tracks the
+ * participants other nodes have announced over the {@link SignalingBus}: frames for a participant
+ * on this node are delivered directly, and only frames for a participant elsewhere are forwarded
+ * to its node.
+ * <p>
+ * A participant whose connection drops without a clean close is suspended rather than removed:
+ * frames sent to it are kept in a {@link ReplayBuffer} and, if it reconnects with the resume
+ * token it was issued within the grace period, it gets its place back and the missed frames are
+ * replayed, without the room seeing it leave and join again.
+ */
+@Slf4j
+@Component
+public class SignalingEngine {
+
+    static final String SYSTEM_SENDER = "system";
+    static final Set<String> ROUTED_TYPES = Set.of("offer", "answer", "ice-candidate");
+    public static final String CHAT_TYPE = "chat";
+    public static final String STATS_TYPE = "stats"; // connection stats, consumed by the receiving node
+    static final CloseStatus IDLE_STATUS = CloseStatus.SESSION_NOT_RELIABLE.withReason("Idle timeout");
+    static final CloseStatus ENDED_STATUS = CloseStatus.NORMAL.withReason("Session ended");
+
+    private final Map<String, SignalingRoom> rooms = new ConcurrentHashMap<>();
+
+    private final SignalingSender sender;
+    private final SignalingCodec codec;
+    private final IceCandidateCoalescer iceCoalescer;
+    private final SignalingBus bus;
+    private final SignalingHeartbeat heartbeat;
+    private final String nodeId;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> routedCounters = new HashMap<>();
+    private final Map<String, Counter> forwardedCounters = new HashMap<>();
+    private final Map<String, Counter> droppedCounters = new HashMap<>();
+    private final Map<String, Counter> bufferedCounters = new HashMap<>();
+    private final Counter presenceCounter;
+    private final Counter resumedCounter;
+    private final Counter expiredCounter;
+    private final long gracePeriodMs;
+    private final int replayBufferSize;
+    private final SecureRandom random = new SecureRandom();
+
+    public SignalingEngine(SignalingSender sender, SignalingCodec codec, IceCandidateCoalescer iceCoalescer,
+                           SignalingBus bus, SignalingHeartbeat heartbeat, MeterRegistry meterRegistry,
+                           @Value("${video.signaling.resume.grace-period-ms:30000}") long gracePeriodMs,
+                           @Value("${video.signaling.resume.replay-buffer-size:128}") int replayBufferSize) {
+        this.sender = sender;
+        this.codec = codec;
+        this.iceCoalescer = iceCoalescer;
+        this.bus = bus;
+        this.heartbeat = heartbeat;
+        this.nodeId = bus.getNodeId();
+        this.meterRegistry = meterRegistry;
+        this.gracePeriodMs = gracePeriodMs;
+        this.replayBufferSize = replayBufferSize;
+        for (String type : typeTags()) {
+            routedCounters.put(type, messageCounter(type, "routed"));
+            forwardedCounters.put(type, messageCounter(type, "forwarded"));
+            droppedCounters.put(type, messageCounter(type, "dropped"));
+            bufferedCounters.put(type, messageCounter(type, "buffered"));
+        }
+        this.presenceCounter = Counter.builder("signaling.presence.events")
+                .description("Join and leave notifications sent to room members")
+                .register(meterRegistry);
+        Gauge.builder("signaling.rooms", rooms, Map::size)
+                .description("Video sessions with at least one connected participant")
+                .register(meterRegistry);
+        Gauge.builder("signaling.participants", rooms,
+                        r -> r.values().stream().mapToInt(room -> room.getParticipants().size()).sum())
+                .description("Connected signaling participants")
+                .register(meterRegistry);
+        Gauge.builder("signaling.participants.suspended", rooms,
+                        r -> r.values().stream().mapToInt(room -> room.getSuspendedParticipants().size()).sum())
+                .description("Disconnected participants waiting to resume")
+                .register(meterRegistry);
+        this.resumedCounter = resumeCounter("resumed");
+        this.expiredCounter = resumeCounter("expired");
+        bus.subscribe(this::onEnvelope);
+    }
+
+    /**
+     * Adds a participant to the room, tells it who is already there and announces it to the others,
+     * here and on the other nodes. A participant that connects again replaces its previous
+     * connection, wherever that was.
+     * <p>
+     * The first frame on every connection is a {@code session} frame carrying a new resume token.
+     * A suspended participant that presents its previous token resumes silently instead: it is
+     * sent the frames it missed and nobody else is told anything. So does a participant whose
+     * previous connection is still registered, half-open with its drop not yet noticed; the frames
+     * queued on that connection are replayed on the new one.
+     *
+     * @param resumeToken the token from the participant's previous connection, if any
+     */
+    public void join(String sessionId, String participantId, WebSocketSession session, String resumeToken) {
+        SignalingConnection connection = sender.open(session, newResumeToken());
+        heartbeat.watch(connection, () -> reap(sessionId, participantId, connection));
+        SignalingConnection[] replaced = new SignalingConnection[1];
+        SuspendedParticipant[] resumed = new SuspendedParticipant[1];
+        SignalingRoom room = rooms.compute(sessionId, (id, existing) -> {
+            SignalingRoom target = existing != null ? existing : new SignalingRoom(id);
+            SuspendedParticipant suspended = target.removeSuspended(participantId);
+            SignalingConnection previous = target.getParticipant(participantId);
+            if (suspended == null && previous != null) {
+                suspended = new SuspendedParticipant(previous.getResumeToken(), replayBufferSize);
+                if (suspended.matches(resumeToken)) {
+                    previous.moveUndeliveredTo(suspended.getBuffer());
+                }
+            }
+            if (suspended != null && suspended.matches(resumeToken)) {
+                resumed[0] = suspended;
+            }
+            replaced[0] = target.addParticipant(participantId, connection);
+            return target;
+        });
+
+        if (replaced[0] != null) {
+            replaced[0].close(CloseStatus.NORMAL.withReason("Replaced by a new connection"));
+        }
+        room.removeRemoteParticipant(participantId);
+
+        if (resumed[0] != null) {
+            resume(room, participantId, connection, resumed[0]);
+            return;
+        }
+        sendSession(room, participantId, connection, false, 0, 0);
+        sendParticipants(room, participantId, connection);
+        broadcastPresence(room, participantId, "new-participant");
+        bus.publish(SignalingEnvelope.presence(
+                SignalingEnvelope.Kind.JOIN, nodeId, null, sessionId, participantId, null));
+        log.debug("Participant {} joined signaling for session {} ({} connected)",
+                participantId, sessionId, room.getParticipants().size());
+    }
+
+    private void resume(SignalingRoom room, String participantId, SignalingConnection connection,
+                        SuspendedParticipant suspended) {
+        ReplayBuffer buffer = suspended.getBuffer();
+        int missed = buffer.getOverwritten();
+        sendSession(room, participantId, connection, true, buffer.size(), missed);
+        buffer.replayTo(connection);
+        if (missed > 0) {
+            // Presence updates may have been lost with the overwritten frames
+            sendParticipants(room, participantId, connection);
+        }
+        resumedCounter.increment();
+        log.debug("Participant {} resumed signaling for session {} ({} frames lost)",
+                participantId, room.getSessionId(), missed);
+    }
+
+    /**
+     * Delivers an offer, answer or ICE candidate to its recipient; candidates may first be
+     * batched by the {@link IceCandidateCoalescer}. Frames of any other type, or without a
+     * recipient, are answered with an error.
+     * The sender must already be stamped into {@code message.from} by the caller.
+     */
+    public void route(SignalingMessageDto message) {
+        SignalingRoom room = rooms.get(message.getSessionId());
+        if (room == null) {
+            return;
+        }
+        String typeTag = typeTag(message.getType());
+        // Anything else would let a client push arbitrary frames, say a forged presence event, to a peer
+        if (!ROUTED_TYPES.contains(message.getType())) {
+            droppedCounters.get(typeTag).increment();
+            sendError(message.getSessionId(), message.getFrom(), "Unsupported message type: " + message.getType());
+            return;
+        }
+        if (message.getTo() == null) {
+            droppedCounters.get(typeTag).increment();
+            sendError(message.getSessionId(), message.getFrom(), "Missing recipient");
+            return;
+        }
+        SignalingConnection recipient = room.getParticipant(message.getTo());
+        SuspendedParticipant suspended = recipient == null ? room.getSuspended(message.getTo()) : null;
+        String recipientNode = recipient == null && suspended == null ? room.getRemoteNode(message.getTo()) : null;
+        if ((recipient == null && suspended == null && recipientNode == null)
+                || message.getTo().equals(message.getFrom())) {
+            droppedCounters.get(typeTag).increment();
+            sendError(message.getSessionId(), message.getFrom(), "Unknown recipient: " + message.getTo());
+            return;
+        }
+
+        if (IceCandidateCoalescer.CANDIDATE_TYPE.equals(message.getType()) && iceCoalescer.isEnabled()) {
+            iceCoalescer.add(message, this::deliverCandidates);
+            return;
+        }
+        if (recipient != null) {
+            deliver(recipient, message, FrameKind.CONTROL, typeTag, 1);
+        } else if (suspended != null) {
+            hold(suspended, codec.encode(message), FrameKind.CONTROL, typeTag, 1);
+        } else {
+            forward(recipientNode, message, typeTag, 1);
+        }
+    }
+
+    /**
+     * Delivers a chat frame to everyone else in the room, here and on the other nodes. The frame is
+     * encoded once and shared by every recipient, and suspended participants get it when they resume.
+     * The sender must already be stamped into {@code message.from} by the caller.
+     */
+    public void broadcast(SignalingMessageDto message) {
+        SignalingRoom room = rooms.get(message.getSessionId());
+        if (room == null) {
+            return;
+        }
+        String typeTag = typeTag(message.getType());
+        TextMessage frame = codec.encode(message);
+        fanOut(room, message.getFrom(), frame, typeTag);
+        if (!room.getRemoteParticipants().isEmpty()) {
+            // One envelope for every node; each delivers it to its own share of the room
+            bus.publish(SignalingEnvelope.broadcast(nodeId, message.getSessionId(), message.getFrom(),
+                    message.getType(), frame.getPayload()));
+            forwardedCounters.get(typeTag).increment();
+        }
+    }
+
+    private void fanOut(SignalingRoom room, String senderId, TextMessage frame, String typeTag) {
+        room.getParticipants().forEach((id, connection) -> {
+            if (id.equals(senderId)) {
+                return;
+            }
+            if (connection.enqueue(frame, FrameKind.CHAT, null)) {
+                routedCounters.get(typeTag).increment();
+            } else {
+                droppedCounters.get(typeTag).increment();
+            }
+        });
+        room.getSuspendedParticipants().forEach((id, suspended) -> {
+            if (!id.equals(senderId)) {
+                hold(suspended, frame, FrameKind.CHAT, typeTag, 1);
+            }
+        });
+    }
+
+    private void deliverCandidates(SignalingMessageDto frame) {
+        SignalingRoom room = rooms.get(frame.getSessionId());
+        SignalingConnection recipient = room != null ? room.getParticipant(frame.getTo()) : null;
+        SuspendedParticipant suspended = room != null && recipient == null ? room.getSuspended(frame.getTo()) : null;
+        String recipientNode = room != null && recipient == null ? room.getRemoteNode(frame.getTo()) : null;
+        int count = frame.getData() instanceof List ? ((List<?>) frame.getData()).size() : 1;
+        if (recipient != null) {
+            deliver(recipient, frame, FrameKind.CANDIDATE, IceCandidateCoalescer.CANDIDATE_TYPE, count);
+        } else if (suspended != null) {
+            hold(suspended, codec.encode(frame), FrameKind.CANDIDATE, IceCandidateCoalescer.CANDIDATE_TYPE, count);
+        } else if (recipientNode != null) {
+            forward(recipientNode, frame, IceCandidateCoalescer.CANDIDATE_TYPE, count);
+        } else {
+            droppedCounters.get(IceCandidateCoalescer.CANDIDATE_TYPE).increment(count);
+        }
+    }
+
+    /**
+     * Keeps a frame for a suspended participant until it resumes.
+     */
+    private void hold(SuspendedParticipant suspended, TextMessage frame, FrameKind kind,
+                      String typeTag, int messageCount) {
+        suspended.getBuffer().add(frame, kind, null);
+        bufferedCounters.get(typeTag).increment(messageCount);
+    }
+
+    private void forward(String recipientNode, SignalingMessageDto message, String typeTag, int messageCount) {
+        bus.publish(SignalingEnvelope.route(nodeId, recipientNode, message.getSessionId(), message.getFrom(),
+                message.getTo(), message.getType(), codec.encode(message).getPayload()));
+        forwardedCounters.get(typeTag).increment(messageCount);
+    }
+
+    private void deliver(SignalingConnection recipient, SignalingMessageDto message,
+                         FrameKind kind, String typeTag, int messageCount) {
+        if (recipient.enqueue(codec.encode(message), kind, null)) {
+            routedCounters.get(typeTag).increment(messageCount);
+        } else {
+            droppedCounters.get(typeTag).increment(messageCount);
+        }
+    }
+
+    /**
+     * Tells a participant that one of its frames was rejected.
+     */
+    public void sendError(String sessionId, String participantId, String reason) {
+        SignalingRoom room = rooms.get(sessionId);
+        SignalingConnection connection = room != null ? room.getParticipant(participantId) : null;
+        if (connection != null) {
+            connection.enqueue(codec.encode(new SignalingMessageDto(
+                    sessionId, SYSTEM_SENDER, participantId, "error", reason)), FrameKind.CONTROL, null);
+        }
+    }
+
+    /**
+     * Handles a closed connection. After a clean close the participant leaves the room; otherwise
+     * it is suspended for the grace period so it can resume.
+     */
+    public void disconnect(String sessionId, String participantId, WebSocketSession session, CloseStatus status) {
+        if (gracePeriodMs > 0 && status.getCode() != CloseStatus.NORMAL.getCode()
+                && suspend(sessionId, participantId, session.getId())) {
+            return;
+        }
+        leave(sessionId, participantId, session.getId());
+    }
+
+    /**
+     * Swaps the participant's connection for a suspension holding the frames it has not been sent yet.
+     *
+     * @return false if the connection no longer belongs to the participant
+     */
+    private boolean suspend(String sessionId, String participantId, String connectionId) {
+        heartbeat.unwatch(connectionId);
+        SuspendedParticipant[] suspended = new SuspendedParticipant[1];
+        rooms.computeIfPresent(sessionId, (id, room) -> {
+            SignalingConnection connection = room.getParticipant(participantId);
+            if (connection != null && room.removeParticipant(participantId, connectionId)) {
+                suspended[0] = new SuspendedParticipant(connection.getResumeToken(), replayBufferSize);
+                connection.moveUndeliveredTo(suspended[0].getBuffer());
+                room.suspend(participantId, suspended[0]);
+            }
+            return room;
+        });
+        if (suspended[0] == null) {
+            return false;
+        }
+        suspended[0].setExpiry(heartbeat.schedule(
+                () -> expire(sessionId, participantId, suspended[0]), gracePeriodMs));
+        log.debug("Participant {} suspended in session {}", participantId, sessionId);
+        return true;
+    }
+
+    private void expire(String sessionId, String participantId, SuspendedParticipant suspended) {
+        SignalingRoom room = rooms.get(sessionId);
+        if (room == null || !room.removeSuspended(participantId, suspended)) {
+            return;
+        }
+        expiredCounter.increment();
+        announceLeft(room, participantId);
+        rooms.computeIfPresent(sessionId, (id, current) -> current.isEmpty() ? null : current);
+        log.debug("Participant {} did not resume signaling for session {}", participantId, sessionId);
+    }
+
+    /**
+     * Closes a connection the {@link SignalingHeartbeat} found idle and lets the room know it left.
+     */
+    private void reap(String sessionId, String participantId, SignalingConnection connection) {
+        connection.close(IDLE_STATUS);
+        leave(sessionId, participantId, connection.getId());
+    }
+
+    /**
+     * Removes the participant if it is still bound to this connection and announces the departure,
+     * unless the participant has meanwhile connected to another node.
+     */
+    private void leave(String sessionId, String participantId, String connectionId) {
+        heartbeat.unwatch(connectionId);
+        SignalingRoom room = rooms.get(sessionId);
+        SignalingConnection connection = room != null ? room.getParticipant(participantId) : null;
+        if (room == null || !room.removeParticipant(participantId, connectionId)) {
+            return;
+        }
+        // Nobody resumes this connection, so frames left queued by a failed send go
+        if (connection != null && connection.getId().equals(connectionId)) {
+            connection.discardQueued();
+        }
+        if (room.getRemoteNode(participantId) == null) {
+            announceLeft(room, participantId);
+        }
+        rooms.computeIfPresent(sessionId, (id, current) -> current.isEmpty() ? null : current);
+        log.debug("Participant {} left signaling for session {}", participantId, sessionId);
+    }
+
+    private void announceLeft(SignalingRoom room, String participantId) {
+        broadcastPresence(room, participantId, "participant-left");
+        bus.publish(SignalingEnvelope.presence(
+                SignalingEnvelope.Kind.LEAVE, nodeId, null, room.getSessionId(), participantId, null));
+    }
+
+    /**
+     * Closes every connection to the session, on this node and the others, and forgets the room,
+     * including participants waiting to resume. The close is a clean one, so nobody is suspended.
+     */
+    public void endSession(String sessionId) {
+        closeRoom(sessionId);
+        bus.publish(SignalingEnvelope.presence(SignalingEnvelope.Kind.END, nodeId, null, sessionId, null, null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMeetingsEnded(MeetingsEndedEvent event) {
+        event.getRoomIds().forEach(this::endSession);
+    }
+
+    private void closeRoom(String sessionId) {
+        SignalingRoom room = rooms.remove(sessionId);
+        if (room == null) {
+            return;
+        }
+        room.getParticipants().values().forEach(connection -> {
+            heartbeat.unwatch(connection.getId());
+            connection.close(ENDED_STATUS);
+        });
+        room.getSuspendedParticipants().values().forEach(SuspendedParticipant::cancelExpiry);
+        log.debug("Signaling for session {} ended", sessionId);
+    }
+
+    /**
+     * Applies an envelope from another node. Sessions without participants on this node are ignored;
+     * when one of them joins, the other nodes answer its JOIN with who they have.
+     */
+    void onEnvelope(SignalingEnvelope envelope) {
+        if (envelope.getKind().isMembership()) {
+            return;
+        }
+        SignalingRoom room = rooms.get(envelope.getSessionId());
+        if (room == null || nodeId.equals(envelope.getOriginNode())) {
+            return;
+        }
+        String participantId = envelope.getParticipantId();
+        switch (envelope.getKind()) {
+            case JOIN:
+                room.putRemoteParticipant(participantId, envelope.getOriginNode());
+                room.removeSuspended(participantId);
+                // Recorded as remote first, so leave() does not announce the departure
+                SignalingConnection moved = room.removeParticipant(participantId);
+                if (moved != null) {
+                    moved.close(CloseStatus.NORMAL.withReason("Replaced by a connection to another node"));
+                    rooms.computeIfPresent(room.getSessionId(), (id, current) -> current.isEmpty() ? null : current);
+                }
+                broadcastPresence(room, participantId, "new-participant");
+                for (String localId : room.getParticipants().keySet()) {
+                    bus.publish(SignalingEnvelope.presence(SignalingEnvelope.Kind.PRESENT, nodeId,
+                            envelope.getOriginNode(), room.getSessionId(), localId, participantId));
+                }
+                break;
+            case PRESENT:
+                if (room.getParticipant(participantId) != null) {
+                    break;
+                }
+                String previousNode = room.putRemoteParticipant(participantId, envelope.getOriginNode());
+                SignalingConnection joiner = room.getParticipant(envelope.getRecipientId());
+                if (joiner != null && !envelope.getOriginNode().equals(previousNode)) {
+                    sendParticipants(room, envelope.getRecipientId(), joiner);
+                }
+                break;
+            case LEAVE:
+                if (room.removeRemoteParticipant(participantId, envelope.getOriginNode())) {
+                    broadcastPresence(room, participantId, "participant-left");
+                }
+                break;
+            case ROUTE:
+                receiveForwarded(room, envelope);
+                break;
+            case END:
+                closeRoom(room.getSessionId());
+                break;
+            case BROADCAST:
+                fanOut(room, participantId, new TextMessage(envelope.getFrame()), typeTag(envelope.getMessageType()));
+                break;
+            default:
+                log.warn("Ignoring signaling envelope of kind {}", envelope.getKind());
+        }
+    }
+
+    private void receiveForwarded(SignalingRoom room, SignalingEnvelope envelope) {
+        String messageType = envelope.getMessageType();
+        boolean candidate = IceCandidateCoalescer.CANDIDATE_TYPE.equals(messageType)
+                || IceCandidateCoalescer.BATCH_TYPE.equals(messageType);
+        String typeTag = candidate ? IceCandidateCoalescer.CANDIDATE_TYPE : typeTag(messageType);
+        FrameKind kind = candidate ? FrameKind.CANDIDATE : FrameKind.CONTROL;
+        SignalingConnection recipient = room.getParticipant(envelope.getRecipientId());
+        SuspendedParticipant suspended = recipient == null ? room.getSuspended(envelope.getRecipientId()) : null;
+        if (suspended != null) {
+            hold(suspended, new TextMessage(envelope.getFrame()), kind, typeTag, 1);
+        } else if (recipient != null && recipient.enqueue(new TextMessage(envelope.getFrame()), kind, null)) {
+            routedCounters.get(typeTag).increment();
+        } else {
+            droppedCounters.get(typeTag).increment();
+        }
+    }
+
+    public int getParticipantCount(String sessionId) {
+        SignalingRoom room = rooms.get(sessionId);
+        return room != null ? room.getParticipants().size() : 0;
+    }
+
+    private void sendSession(SignalingRoom room, String participantId, SignalingConnection connection,
+                             boolean resumed, int replayed, int missed) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("resumeToken", connection.getResumeToken());
+        data.put("gracePeriodMs", gracePeriodMs);
+        data.put("resumed", resumed);
+        if (resumed) {
+            data.put("replayed", replayed);
+            data.put("missed", missed);
+        }
+        connection.enqueue(codec.encode(new SignalingMessageDto(
+                room.getSessionId(), SYSTEM_SENDER, participantId, "session", data)), FrameKind.CONTROL, null);
+    }
+
+    /**
+     * Tells a participant who else is in the room; a newer list supersedes one still queued.
+     */
+    private void sendParticipants(SignalingRoom room, String participantId, SignalingConnection connection) {
+        List<String> others = new ArrayList<>(room.getRemoteParticipants().keySet());
+        others.addAll(room.getSuspendedParticipants().keySet());
+        room.getParticipants().keySet().stream()
+                .filter(id -> !id.equals(participantId))
+                .forEach(others::add);
+        sendPresence(room, participantId, connection, codec.encode(new SignalingMessageDto(
+                room.getSessionId(), SYSTEM_SENDER, participantId, "participants", others)), "presence:*");
+    }
+
+    /**
+     * Encodes the presence event once, without a recipient, and shares that frame with the whole room.
+     */
+    private void broadcastPresence(SignalingRoom room, String participantId, String type) {
+        TextMessage frame = codec.encode(new SignalingMessageDto(
+                room.getSessionId(), SYSTEM_SENDER, null, type, participantId));
+        // A later presence update about the same participant supersedes a queued one
+        String coalesceKey = "presence:" + participantId;
+        room.getParticipants().forEach((id, connection) -> {
+            if (!id.equals(participantId)) {
+                sendPresence(room, id, connection, frame, coalesceKey);
+            }
+        });
+        room.getSuspendedParticipants().forEach((id, suspended) -> {
+            if (!id.equals(participantId)) {
+                suspended.getBuffer().add(frame, FrameKind.PRESENCE, coalesceKey);
+            }
+        });
+    }
+
+    private void sendPresence(SignalingRoom room, String recipientId, SignalingConnection connection,
+                              TextMessage frame, String coalesceKey) {
+        if (connection.enqueue(frame, FrameKind.PRESENCE, coalesceKey)) {
+            presenceCounter.increment();
+        } else {
+            log.debug("Could not queue presence for {} in session {}", recipientId, room.getSessionId());
+        }
+    }
+
+    private Counter resumeCounter(String outcome) {
+        return Counter.builder("signaling.resume")
+                .description("Suspended participants by whether they resumed within the grace period")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private String newResumeToken() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private Counter messageCounter(String type, String outcome) {
+        return Counter.builder("signaling.messages")
+                .description("Signaling messages by type and outcome, counted per recipient")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static List<String> typeTags() {
+        List<String> tags = new ArrayList<>(ROUTED_TYPES);
+        tags.add(CHAT_TYPE);
+        tags.add("other");
+        return tags;
+    }
+
+    private static String typeTag(String type) {
+        return type != null && (ROUTED_TYPES.contains(type) || CHAT_TYPE.equals(type)) ? type : "other";
+    }
+}
@@ -0,0 +1,71 @@
+package com.thephysc.modules.video.signaling;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A message exchanged between nodes over the {@link SignalingBus}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SignalingEnvelope {
+
+    public enum Kind {
+        /** {@code participantId} connected to the origin node */
+        JOIN,
+        /** {@code participantId} disconnected from the origin node */
+        LEAVE,
+        /** Reply to a JOIN from {@code recipientId}: {@code participantId} is connected to the origin node */
+        PRESENT,
+        /** {@code frame} from {@code participantId} to {@code recipientId}, which is connected to the target node */
+        ROUTE,
+        /** {@code frame} from {@code participantId} to every participant of the session on the receiving node */
+        BROADCAST,
+        /** The session has ended; every node closes the connections of its participants */
+        END,
+        /** The origin node is alive and accepts signaling connections at {@code nodeUrl} */
+        HEARTBEAT,
+        /** The origin node is shutting down */
+        NODE_LEFT;
+
+        /**
+         * @return whether the envelope is about cluster membership rather than a video session
+         */
+        public boolean isMembership() {
+            return this == HEARTBEAT || this == NODE_LEFT;
+        }
+    }
+
+    private Kind kind;
+    private String originNode;
+    private String targetNode; // null for every node
+    private String sessionId;
+    private String participantId;
+    private String recipientId;
+    private String messageType; // type of the routed frame, for queueing and metrics
+    private String frame; // encoded signaling frame, ROUTE and BROADCAST only
+    private String nodeUrl; // HEARTBEAT only
+
+    public static SignalingEnvelope presence(Kind kind, String originNode, String targetNode, String sessionId,
+                                             String participantId, String recipientId) {
+        return new SignalingEnvelope(kind, originNode, targetNode, sessionId, participantId, recipientId, null, null, null);
+    }
+
+    public static SignalingEnvelope route(String originNode, String targetNode, String sessionId, String from,
+                                          String to, String messageType, String frame) {
+        return new SignalingEnvelope(Kind.ROUTE, originNode, targetNode, sessionId, from, to, messageType, frame, null);
+    }
+
+    public static SignalingEnvelope broadcast(String originNode, String sessionId, String from,
+                                              String messageType, String frame) {
+        return new SignalingEnvelope(Kind.BROADCAST, originNode, null, sessionId, from, null, messageType, frame, null);
+    }
+
+    public static SignalingEnvelope membership(Kind kind, String originNode, String nodeUrl) {
+        return new SignalingEnvelope(kind, originNode, null, null, null, null, null, null, nodeUrl);
+    }
+}
@@ -0,0 +1,151 @@
+package com.thephysc.modules.video.signaling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects dead signaling connections, such as a phone that lost its network without closing
+ * the socket.
+ * <p>
+ * Every inbound frame and pong refreshes a connection's last-seen time. A connection that has
+ * been quiet for the ping interval is sent a WebSocket ping, and one that stays quiet for the
+ * idle timeout is reaped through the normal leave flow. Each connection has a single pending
+ * timeout on a {@link HashedTimingWheel}; activity only updates the last-seen time and the
+ * timeout re-arms itself when it fires, so busy connections cost no timer work per frame.
+ */
+@Slf4j
+@Component
+public class SignalingHeartbeat {
+
+    private final long pingIntervalNanos;
+    private final long idleTimeoutNanos;
+    private final HashedTimingWheel wheel;
+    private final SignalingSender sender;
+
+    // WebSocket session id -> watch
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+
+    private final Counter pings;
+    private final Counter reaped;
+
+    public SignalingHeartbeat(
+            SignalingSender sender,
+            MeterRegistry meterRegistry,
+            @Value("${video.signaling.heartbeat.ping-interval-ms:15000}") long pingIntervalMs,
+            @Value("${video.signaling.heartbeat.idle-timeout-ms:45000}") long idleTimeoutMs,
+            @Value("${video.signaling.heartbeat.tick-ms:500}") long tickMs,
+            @Value("${video.signaling.heartbeat.wheel-size:512}") int wheelSize) {
+        this.sender = sender;
+        this.pingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pingIntervalMs);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(idleTimeoutMs, pingIntervalMs));
+        this.wheel = new HashedTimingWheel("signaling-heartbeat", tickMs, TimeUnit.MILLISECONDS, wheelSize);
+        this.pings = Counter.builder("signaling.heartbeat.pings")
+                .description("Pings sent to quiet signaling connections")
+                .register(meterRegistry);
+        this.reaped = Counter.builder("signaling.heartbeat.reaped")
+                .description("Signaling connections closed after the idle timeout")
+                .register(meterRegistry);
+        Gauge.builder("signaling.heartbeat.watched", watches, Map::size)
+                .description("Signaling connections with a pending heartbeat timeout")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    /**
+     * Starts tracking a connection.
+     *
+     * @param onIdle called once, off the timer thread, when the connection is reaped
+     */
+    void watch(SignalingConnection connection, Runnable onIdle) {
+        Watch watch = new Watch(connection, onIdle);
+        Watch previous = watches.put(connection.getId(), watch);
+        if (previous != null) {
+            previous.cancel();
+        }
+        watch.arm(pingIntervalNanos);
+    }
+
+    /**
+     * Records activity on the connection with the given WebSocket session id.
+     */
+    public void touch(String connectionId) {
+        Watch watch = watches.get(connectionId);
+        if (watch != null) {
+            watch.lastSeen = System.nanoTime();
+        }
+    }
+
+    /**
+     * Runs the task on the send threads once the delay has passed, unless it is cancelled first.
+     */
+    HashedTimingWheel.Timeout schedule(Runnable task, long delayMs) {
+        return wheel.schedule(() -> sender.execute(task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    void unwatch(String connectionId) {
+        Watch watch = watches.remove(connectionId);
+        if (watch != null) {
+            watch.cancel();
+        }
+    }
+
+    private final class Watch implements Runnable {
+        private final SignalingConnection connection;
+        private final Runnable onIdle;
+        private volatile long lastSeen = System.nanoTime();
+        private volatile HashedTimingWheel.Timeout timeout;
+
+        private Watch(SignalingConnection connection, Runnable onIdle) {
+            this.connection = connection;
+            this.onIdle = onIdle;
+        }
+
+        private void arm(long delayNanos) {
+            timeout = wheel.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void cancel() {
+            HashedTimingWheel.Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (watches.get(connection.getId()) != this) {
+                return;
+            }
+            long idle = System.nanoTime() - lastSeen;
+            if (idle >= idleTimeoutNanos || !connection.isOpen()) {
+                watches.remove(connection.getId(), this);
+                reaped.increment();
+                log.debug("Reaping signaling connection {} after {} ms without traffic",
+                        connection.getId(), TimeUnit.NANOSECONDS.toMillis(idle));
+                // Closing may block on a dead socket, so it runs on the send threads
+                sender.execute(onIdle);
+                return;
+            }
+            if (idle >= pingIntervalNanos) {
+                connection.ping();
+                pings.increment();
+                arm(Math.min(pingIntervalNanos, idleTimeoutNanos - idle));
+            } else {
+                arm(pingIntervalNanos - idle);
+            }
+        }
+    }
+}
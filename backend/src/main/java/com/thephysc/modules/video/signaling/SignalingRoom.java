@@ -0,0 +1,126 @@
+package com.thephysc.modules.video.signaling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Participants of one video session connected to this node and the participants other nodes have
+ * announced for it.
+ */
+class SignalingRoom {
+
+    private final String sessionId;
+
+    // participantId -> connection
+    private final Map<String, SignalingConnection> participants = new ConcurrentHashMap<>();
+    // participantId -> node it is connected to, for participants on other nodes
+    private final Map<String, String> remoteParticipants = new ConcurrentHashMap<>();
+    // participantId -> participant waiting to resume after its connection dropped
+    private final Map<String, SuspendedParticipant> suspendedParticipants = new ConcurrentHashMap<>();
+
+    SignalingRoom(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    String getSessionId() {
+        return sessionId;
+    }
+
+    Map<String, SignalingConnection> getParticipants() {
+        return participants;
+    }
+
+    SignalingConnection getParticipant(String participantId) {
+        return participantId == null ? null : participants.get(participantId);
+    }
+
+    /**
+     * @return the connection this participant had before, if it was already connected
+     */
+    SignalingConnection addParticipant(String participantId, SignalingConnection connection) {
+        return participants.put(participantId, connection);
+    }
+
+    /**
+     * Removes the participant whatever connection it is bound to.
+     */
+    SignalingConnection removeParticipant(String participantId) {
+        return participants.remove(participantId);
+    }
+
+    /**
+     * Removes the participant only if it is still bound to the given connection, so a
+     * connection replaced by a newer one cannot evict its successor when it closes.
+     */
+    boolean removeParticipant(String participantId, String connectionId) {
+        boolean[] removed = new boolean[1];
+        participants.computeIfPresent(participantId, (id, current) -> {
+            if (current.getId().equals(connectionId)) {
+                removed[0] = true;
+                return null;
+            }
+            return current;
+        });
+        return removed[0];
+    }
+
+    Map<String, String> getRemoteParticipants() {
+        return remoteParticipants;
+    }
+
+    String getRemoteNode(String participantId) {
+        return participantId == null ? null : remoteParticipants.get(participantId);
+    }
+
+    /**
+     * @return the node the participant was known on before, if any
+     */
+    String putRemoteParticipant(String participantId, String nodeId) {
+        return remoteParticipants.put(participantId, nodeId);
+    }
+
+    /**
+     * Forgets a remote participant only if it is still known on the given node.
+     */
+    boolean removeRemoteParticipant(String participantId, String nodeId) {
+        return remoteParticipants.remove(participantId, nodeId);
+    }
+
+    void removeRemoteParticipant(String participantId) {
+        remoteParticipants.remove(participantId);
+    }
+
+    Map<String, SuspendedParticipant> getSuspendedParticipants() {
+        return suspendedParticipants;
+    }
+
+    SuspendedParticipant getSuspended(String participantId) {
+        return participantId == null ? null : suspendedParticipants.get(participantId);
+    }
+
+    void suspend(String participantId, SuspendedParticipant suspended) {
+        SuspendedParticipant previous = suspendedParticipants.put(participantId, suspended);
+        if (previous != null) {
+            previous.cancelExpiry();
+        }
+    }
+
+    /**
+     * @return the suspension, if the participant was suspended
+     */
+    SuspendedParticipant removeSuspended(String participantId) {
+        SuspendedParticipant removed = suspendedParticipants.remove(participantId);
+        if (removed != null) {
+            removed.cancelExpiry();
+        }
+        return removed;
+    }
+
+    boolean removeSuspended(String participantId, SuspendedParticipant suspended) {
+        return suspendedParticipants.remove(participantId, suspended);
+    }
+
+    boolean isEmpty() {
+        return participants.isEmpty() && suspendedParticipants.isEmpty();
+    }
+}
@@ -0,0 +1,162 @@
+package com.thephysc.modules.video.signaling;
+
+import com.thephysc.modules.video.signaling.SignalingConnection.FrameKind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import javax.annotation.PreDestroy;
+import javax.websocket.Session;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the executor that drains every {@link SignalingConnection}'s outbound queue,
+ * together with the queue limits, overflow policies and send metrics.
+ */
+@Component
+public class SignalingSender {
+
+    // Read by Tomcat on every blocking send; it must be a Long
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final ExecutorService executor;
+    private final long sendTimeoutMs;
+    private final int queueCapacity;
+    private final int bufferSizeLimit;
+    private final int drainBatchSize;
+    private final Map<FrameKind, OverflowPolicy> policies = new EnumMap<>(FrameKind.class);
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger queuedFrames = new AtomicInteger();
+    private final Timer sendLatency;
+    private final DistributionSummary queueDepth;
+    private final Map<FrameKind, Map<String, Counter>> overflowCounters = new EnumMap<>(FrameKind.class);
+
+    public SignalingSender(
+            MeterRegistry meterRegistry,
+            @Value("${video.signaling.outbound.send-threads:4}") int sendThreads,
+            @Value("${video.signaling.outbound.queue-capacity:256}") int queueCapacity,
+            @Value("${video.signaling.outbound.buffer-size-limit:524288}") int bufferSizeLimit,
+            @Value("${video.signaling.outbound.drain-batch-size:32}") int drainBatchSize,
+            @Value("${video.signaling.outbound.send-timeout-ms:5000}") long sendTimeoutMs,
+            @Value("${video.signaling.outbound.overflow.candidate:DROP_OLDEST}") OverflowPolicy candidatePolicy,
+            @Value("${video.signaling.outbound.overflow.presence:DROP_OLDEST}") OverflowPolicy presencePolicy,
+            @Value("${video.signaling.outbound.overflow.control:CLOSE}") OverflowPolicy controlPolicy,
+            @Value("${video.signaling.outbound.overflow.chat:DROP_OLDEST}") OverflowPolicy chatPolicy) {
+        this.meterRegistry = meterRegistry;
+        this.queueCapacity = queueCapacity;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.drainBatchSize = drainBatchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        policies.put(FrameKind.CANDIDATE, candidatePolicy);
+        policies.put(FrameKind.PRESENCE, presencePolicy);
+        policies.put(FrameKind.CONTROL, controlPolicy);
+        policies.put(FrameKind.CHAT, chatPolicy);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "signaling-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sendLatency = Timer.builder("signaling.send.latency")
+                .description("Time from enqueueing a signaling frame until it is written to the socket")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.queueDepth = DistributionSummary.builder("signaling.queue.depth")
+                .description("Outbound queue depth of a connection after each enqueue")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("signaling.queue.frames", queuedFrames, AtomicInteger::get)
+                .description("Signaling frames waiting in outbound queues")
+                .register(meterRegistry);
+        for (FrameKind kind : FrameKind.values()) {
+            Map<String, Counter> byAction = Map.of(
+                    "coalesced", overflowCounter(kind, "coalesced"),
+                    "dropped", overflowCounter(kind, "dropped"),
+                    "closed", overflowCounter(kind, "closed"));
+            overflowCounters.put(kind, byAction);
+        }
+    }
+
+    SignalingConnection open(WebSocketSession session, String resumeToken) {
+        limitSendTime(session);
+        return new SignalingConnection(session, this, resumeToken);
+    }
+
+    /**
+     * Bounds how long one send may block on a client that stopped reading, so it holds a send
+     * thread for at most the timeout rather than Tomcat's default of 20 seconds. The send then
+     * fails with an {@code IOException} and the connection is closed.
+     */
+    private void limitSendTime(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession) {
+            Session nativeSession = ((NativeWebSocketSession) session).getNativeSession(Session.class);
+            if (nativeSession != null) {
+                nativeSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeoutMs);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    int getBufferSizeLimit() {
+        return bufferSizeLimit;
+    }
+
+    int getDrainBatchSize() {
+        return drainBatchSize;
+    }
+
+    OverflowPolicy getPolicy(FrameKind kind) {
+        return policies.get(kind);
+    }
+
+    void frameCountChanged(int delta) {
+        queuedFrames.addAndGet(delta);
+    }
+
+    void recordQueueDepth(int depth) {
+        queueDepth.record(depth);
+    }
+
+    void recordSendLatency(long nanos) {
+        sendLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordOverflow(FrameKind kind, String action) {
+        overflowCounters.get(kind).get(action).increment();
+    }
+
+    private Counter overflowCounter(FrameKind kind, String action) {
+        return Counter.builder("signaling.queue.overflow")
+                .description("Outbound frames coalesced, dropped or causing a close because a queue was full")
+                .tag("kind", kind.name().toLowerCase())
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+}
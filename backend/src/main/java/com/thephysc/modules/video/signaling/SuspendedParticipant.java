@@ -0,0 +1,40 @@
+package com.thephysc.modules.video.signaling;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * A participant whose connection dropped without a clean close. It keeps its place in the room
+ * and collects the frames sent to it until it resumes with its token or the grace period ends.
+ */
+class SuspendedParticipant {
+
+    private final String resumeToken;
+    private final ReplayBuffer buffer;
+    private volatile HashedTimingWheel.Timeout expiry;
+
+    SuspendedParticipant(String resumeToken, int bufferSize) {
+        this.resumeToken = resumeToken;
+        this.buffer = new ReplayBuffer(bufferSize);
+    }
+
+    boolean matches(String token) {
+        return token != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), resumeToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    ReplayBuffer getBuffer() {
+        return buffer;
+    }
+
+    void setExpiry(HashedTimingWheel.Timeout expiry) {
+        this.expiry = expiry;
+    }
+
+    void cancelExpiry() {
+        HashedTimingWheel.Timeout current = expiry;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+}
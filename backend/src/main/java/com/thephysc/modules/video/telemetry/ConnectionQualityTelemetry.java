@@ -0,0 +1,289 @@
+package com.thephysc.modules.video.telemetry;
+
+import com.thephysc.core.entities.CallQualitySample;
+import com.thephysc.core.repositories.CallQualitySampleRepository;
+import com.thephysc.core.repositories.MeetingParticipantRepository;
+import com.thephysc.modules.video.dto.ConnectionQualityDto;
+import com.thephysc.modules.video.dto.ConnectionQualityReportDto;
+import com.thephysc.modules.video.dto.SignalingStatsDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connection quality of video calls, from the WebRTC stats clients send over signaling about
+ * once a second.
+ * <p>
+ * Recording a sample only puts it on a lock-free {@link SampleRing}, so the socket thread never
+ * waits on aggregation or the database; a full ring drops the sample. Every
+ * {@code video.telemetry.drain-interval-ms} the ring is drained into a rolling window of the last
+ * {@code video.telemetry.window-size} samples per participant, from which reports are computed
+ * per participant and per room. Every {@code video.telemetry.flush-interval-ms} each participant
+ * that reported since the previous flush is downsampled to one {@link CallQualitySample} row of
+ * percentiles, the rows are inserted in batches, and the participant's meeting row is updated
+ * only when its quality level changed.
+ * <p>
+ * All connections of a session are on the node that owns it, so each node aggregates the rooms
+ * it serves on its own.
+ */
+@Slf4j
+@Component
+public class ConnectionQualityTelemetry {
+
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    private final CallQualitySampleRepository sampleRepository;
+    private final MeetingParticipantRepository participantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SampleRing<QualitySample> ring;
+    private final int windowSize;
+    private final long idleTimeoutMs;
+    // Session id to participant id to window; guarded by the lock
+    private final Map<String, Map<String, QualityWindow>> sessions = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter acceptedCounter;
+    private final Counter droppedCounter;
+    private final Counter invalidCounter;
+    private final Counter rowsWrittenCounter;
+    private final Counter rowsDroppedCounter;
+
+    public ConnectionQualityTelemetry(
+            CallQualitySampleRepository sampleRepository,
+            MeetingParticipantRepository participantRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${video.telemetry.ring-capacity:65536}") int ringCapacity,
+            @Value("${video.telemetry.window-size:60}") int windowSize,
+            @Value("${video.telemetry.idle-timeout-ms:60000}") long idleTimeoutMs) {
+        this.sampleRepository = sampleRepository;
+        this.participantRepository = participantRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ring = new SampleRing<>(ringCapacity);
+        this.windowSize = windowSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        Gauge.builder("signaling.telemetry.pending", ring, SampleRing::size)
+                .description("Connection stats samples waiting to be aggregated")
+                .register(meterRegistry);
+        this.acceptedCounter = sampleCounter(meterRegistry, "accepted");
+        this.droppedCounter = sampleCounter(meterRegistry, "dropped");
+        this.invalidCounter = sampleCounter(meterRegistry, "invalid");
+        this.rowsWrittenCounter = rowCounter(meterRegistry, "written");
+        this.rowsDroppedCounter = rowCounter(meterRegistry, "dropped");
+    }
+
+    /**
+     * Queues one participant's stats for aggregation. Samples with no metric, or with a negative
+     * or non-finite one, are ignored.
+     *
+     * @return {@code false} if the sample was not queued
+     */
+    public boolean record(String sessionId, String participantId, SignalingStatsDto stats) {
+        if (stats == null || !valid(stats.getRttMs()) || !valid(stats.getJitterMs())
+                || !valid(stats.getPacketLoss()) || !valid(stats.getBitrateKbps())
+                || (stats.getPacketLoss() != null && stats.getPacketLoss() > 100)
+                || (stats.getRttMs() == null && stats.getJitterMs() == null
+                        && stats.getPacketLoss() == null && stats.getBitrateKbps() == null)) {
+            invalidCounter.increment();
+            return false;
+        }
+        QualitySample sample = new QualitySample(sessionId, participantId, System.currentTimeMillis(),
+                orNaN(stats.getRttMs()), orNaN(stats.getJitterMs()),
+                orNaN(stats.getPacketLoss()), orNaN(stats.getBitrateKbps()));
+        if (!ring.offer(sample)) {
+            droppedCounter.increment();
+            return false;
+        }
+        acceptedCounter.increment();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${video.telemetry.drain-interval-ms:200}")
+    public void drain() {
+        lock.lock();
+        try {
+            // The lock also keeps the ring's single-consumer contract
+            ring.drain(this::aggregate, ring.capacity());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void aggregate(QualitySample sample) {
+        sessions.computeIfAbsent(sample.sessionId, id -> new HashMap<>())
+                .computeIfAbsent(sample.participantId, id -> new QualityWindow(windowSize))
+                .add(sample);
+    }
+
+    /**
+     * Quality over each participant's rolling window, and over the room as a whole.
+     *
+     * @return empty if no participant of the session reported within the idle timeout
+     */
+    public Optional<ConnectionQualityReportDto> getReport(String sessionId) {
+        lock.lock();
+        try {
+            Map<String, QualityWindow> participants = sessions.get(sessionId);
+            if (participants == null || participants.isEmpty()) {
+                return Optional.empty();
+            }
+            List<ConnectionQualityDto> perParticipant = new ArrayList<>(participants.size());
+            participants.forEach((participantId, window) ->
+                    perParticipant.add(QualityWindow.summarize(participantId, List.of(window), false)));
+            perParticipant.sort(Comparator.comparing(ConnectionQualityDto::getParticipantId));
+            return Optional.of(ConnectionQualityReportDto.builder()
+                    .sessionId(sessionId)
+                    .room(QualityWindow.summarize(null, participants.values(), false))
+                    .participants(perParticipant)
+                    .build());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${video.telemetry.flush-interval-ms:30000}")
+    public void flush() {
+        drain();
+        long now = System.currentTimeMillis();
+        List<CallQualitySample> rows = new ArrayList<>();
+        Map<String, Map<String, List<String>>> changed = new HashMap<>(); // session, level, participants
+        Map<QualityWindow, String> changedWindows = new IdentityHashMap<>();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, Map<String, QualityWindow>>> sessionIterator = sessions.entrySet().iterator();
+            while (sessionIterator.hasNext()) {
+                Map.Entry<String, Map<String, QualityWindow>> session = sessionIterator.next();
+                Iterator<Map.Entry<String, QualityWindow>> participantIterator = session.getValue().entrySet().iterator();
+                while (participantIterator.hasNext()) {
+                    Map.Entry<String, QualityWindow> participant = participantIterator.next();
+                    QualityWindow window = participant.getValue();
+                    if (window.sinceFlush() > 0) {
+                        ConnectionQualityDto summary = QualityWindow.summarize(
+                                participant.getKey(), List.of(window), true);
+                        rows.add(toRow(session.getKey(), window, summary));
+                        if (!summary.getQuality().equals(window.writtenQuality())) {
+                            changedWindows.put(window, summary.getQuality());
+                            changed.computeIfAbsent(session.getKey(), id -> new HashMap<>())
+                                    .computeIfAbsent(summary.getQuality(), level -> new ArrayList<>())
+                                    .add(participant.getKey());
+                        }
+                        window.flushed();
+                    } else if (now - window.lastSampleAt() > idleTimeoutMs) {
+                        participantIterator.remove();
+                    }
+                }
+                if (session.getValue().isEmpty()) {
+                    sessionIterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Samples keep being recorded while the rows are written
+        for (int from = 0; from < rows.size(); from += FLUSH_CHUNK_SIZE) {
+            writeChunk(rows.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, rows.size())));
+        }
+        if (!changed.isEmpty() && updateConnectionQuality(changed)) {
+            // Only once committed, so a failed update is tried again on the next flush
+            lock.lock();
+            try {
+                changedWindows.forEach(QualityWindow::setWrittenQuality);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void writeChunk(List<CallQualitySample> chunk) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> sampleRepository.saveAll(chunk));
+            rowsWrittenCounter.increment(chunk.size());
+        } catch (Exception e) {
+            // Telemetry is not worth holding on to while the database is struggling
+            rowsDroppedCounter.increment(chunk.size());
+            log.error("Failed to write {} call quality samples: {}", chunk.size(), e.getMessage());
+        }
+    }
+
+    private boolean updateConnectionQuality(Map<String, Map<String, List<String>>> changed) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            // Video sessions that are not meeting rooms match no participants
+            transactionTemplate.executeWithoutResult(status -> changed.forEach((sessionId, levels) ->
+                    levels.forEach((quality, participantIds) -> participantRepository.updateConnectionQuality(
+                            sessionId, participantIds, quality, now))));
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to update connection quality of meeting participants: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static CallQualitySample toRow(String sessionId, QualityWindow window, ConnectionQualityDto summary) {
+        return CallQualitySample.builder()
+                .sessionId(sessionId)
+                .participantId(summary.getParticipantId())
+                .windowStart(toDateTime(window.sinceFlushStart()))
+                .windowEnd(toDateTime(window.lastSampleAt()))
+                .sampleCount(summary.getSamples())
+                .rttP50Ms(summary.getRttP50Ms())
+                .rttP95Ms(summary.getRttP95Ms())
+                .jitterP50Ms(summary.getJitterP50Ms())
+                .jitterP95Ms(summary.getJitterP95Ms())
+                .packetLossP50(summary.getPacketLossP50())
+                .packetLossP95(summary.getPacketLossP95())
+                .bitrateP50Kbps(summary.getBitrateP50Kbps())
+                .bitrateP05Kbps(summary.getBitrateP05Kbps())
+                .quality(summary.getQuality())
+                .build();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static boolean valid(Double value) {
+        return value == null || (Double.isFinite(value) && value >= 0);
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Counter sampleCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("signaling.telemetry.samples")
+                .description("Connection stats samples received over signaling, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("signaling.telemetry.rows")
+                .description("Downsampled call quality rows, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.thephysc.modules.video.telemetry;
+
+/**
+ * One stats report from one participant, as queued for aggregation. Metrics the client did not
+ * report are {@code NaN}.
+ */
+final class QualitySample {
+
+    static final int RTT = 0;
+    static final int JITTER = 1;
+    static final int PACKET_LOSS = 2;
+    static final int BITRATE = 3;
+    static final int METRICS = 4;
+
+    final String sessionId;
+    final String participantId;
+    final long receivedAt; // epoch millis
+    final double[] values = new double[METRICS];
+
+    QualitySample(String sessionId, String participantId, long receivedAt,
+                  double rttMs, double jitterMs, double packetLoss, double bitrateKbps) {
+        this.sessionId = sessionId;
+        this.participantId = participantId;
+        this.receivedAt = receivedAt;
+        values[RTT] = rttMs;
+        values[JITTER] = jitterMs;
+        values[PACKET_LOSS] = packetLoss;
+        values[BITRATE] = bitrateKbps;
+    }
+}
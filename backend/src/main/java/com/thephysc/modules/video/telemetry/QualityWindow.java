@@ -0,0 +1,143 @@
+package com.thephysc.modules.video.telemetry;
+
+import com.thephysc.modules.video.dto.ConnectionQualityDto;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The last samples of one participant, one fixed-size ring per metric, plus how many of them
+ * arrived since the participant's last downsampled row. Only the aggregating thread touches it.
+ */
+final class QualityWindow {
+
+    // Thresholds on the 95th percentiles; a metric nobody reported does not count against a connection
+    private static final double EXCELLENT_RTT_MS = 150;
+    private static final double EXCELLENT_JITTER_MS = 30;
+    private static final double EXCELLENT_LOSS = 1;
+    private static final double GOOD_RTT_MS = 300;
+    private static final double GOOD_JITTER_MS = 60;
+    private static final double GOOD_LOSS = 5;
+
+    private final double[][] values;
+    private int next;
+    private int size;
+    private int sinceFlush;
+    private long sinceFlushStart;
+    private long lastSampleAt;
+    private String writtenQuality; // as last written to the participant's meeting row
+
+    QualityWindow(int capacity) {
+        this.values = new double[QualitySample.METRICS][capacity];
+    }
+
+    void add(QualitySample sample) {
+        for (int metric = 0; metric < QualitySample.METRICS; metric++) {
+            values[metric][next] = sample.values[metric];
+        }
+        next = (next + 1) % values[0].length;
+        size = Math.min(size + 1, values[0].length);
+        if (sinceFlush++ == 0) {
+            sinceFlushStart = sample.receivedAt;
+        }
+        lastSampleAt = sample.receivedAt;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int sinceFlush() {
+        return sinceFlush;
+    }
+
+    long sinceFlushStart() {
+        return sinceFlushStart;
+    }
+
+    long lastSampleAt() {
+        return lastSampleAt;
+    }
+
+    void flushed() {
+        sinceFlush = 0;
+    }
+
+    String writtenQuality() {
+        return writtenQuality;
+    }
+
+    void setWrittenQuality(String quality) {
+        this.writtenQuality = quality;
+    }
+
+    /**
+     * Percentiles over the given windows taken together: over the samples each received since its
+     * last flush, or over each whole rolling window.
+     */
+    static ConnectionQualityDto summarize(String participantId, Collection<QualityWindow> windows, boolean sinceFlush) {
+        int samples = 0;
+        for (QualityWindow window : windows) {
+            samples += sinceFlush ? Math.min(window.sinceFlush, window.size) : window.size;
+        }
+        double[][] collected = new double[QualitySample.METRICS][samples];
+        int[] counts = new int[QualitySample.METRICS];
+        for (QualityWindow window : windows) {
+            int last = sinceFlush ? Math.min(window.sinceFlush, window.size) : window.size;
+            int capacity = window.values[0].length;
+            for (int i = 1; i <= last; i++) {
+                int index = (window.next - i + capacity) % capacity;
+                for (int metric = 0; metric < QualitySample.METRICS; metric++) {
+                    double value = window.values[metric][index];
+                    if (!Double.isNaN(value)) {
+                        collected[metric][counts[metric]++] = value;
+                    }
+                }
+            }
+        }
+        for (int metric = 0; metric < QualitySample.METRICS; metric++) {
+            Arrays.sort(collected[metric], 0, counts[metric]);
+        }
+        ConnectionQualityDto dto = ConnectionQualityDto.builder()
+                .participantId(participantId)
+                .samples(samples)
+                .rttP50Ms(percentile(collected[QualitySample.RTT], counts[QualitySample.RTT], 50))
+                .rttP95Ms(percentile(collected[QualitySample.RTT], counts[QualitySample.RTT], 95))
+                .jitterP50Ms(percentile(collected[QualitySample.JITTER], counts[QualitySample.JITTER], 50))
+                .jitterP95Ms(percentile(collected[QualitySample.JITTER], counts[QualitySample.JITTER], 95))
+                .packetLossP50(percentile(collected[QualitySample.PACKET_LOSS], counts[QualitySample.PACKET_LOSS], 50))
+                .packetLossP95(percentile(collected[QualitySample.PACKET_LOSS], counts[QualitySample.PACKET_LOSS], 95))
+                .bitrateP50Kbps(percentile(collected[QualitySample.BITRATE], counts[QualitySample.BITRATE], 50))
+                .bitrateP05Kbps(percentile(collected[QualitySample.BITRATE], counts[QualitySample.BITRATE], 5))
+                .build();
+        if (samples > 0) {
+            dto.setQuality(quality(dto));
+        }
+        return dto;
+    }
+
+    // Nearest-rank percentile of the first count values, which are sorted
+    private static Double percentile(double[] sorted, int count, double percentile) {
+        if (count == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static String quality(ConnectionQualityDto dto) {
+        if (within(dto.getRttP95Ms(), EXCELLENT_RTT_MS) && within(dto.getJitterP95Ms(), EXCELLENT_JITTER_MS)
+                && within(dto.getPacketLossP95(), EXCELLENT_LOSS)) {
+            return "excellent";
+        }
+        if (within(dto.getRttP95Ms(), GOOD_RTT_MS) && within(dto.getJitterP95Ms(), GOOD_JITTER_MS)
+                && within(dto.getPacketLossP95(), GOOD_LOSS)) {
+            return "good";
+        }
+        return "poor";
+    }
+
+    private static boolean within(Double value, double limit) {
+        return value == null || value <= limit;
+    }
+}
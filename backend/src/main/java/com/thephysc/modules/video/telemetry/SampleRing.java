@@ -0,0 +1,89 @@
+package com.thephysc.modules.video.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number. A producer claims the next position with a CAS on the
+ * tail and publishes its item by advancing the slot's sequence; the consumer takes slots in order
+ * once they are published and hands them back by advancing the sequence a lap further. A full
+ * ring rejects new items instead of blocking or growing.
+ */
+class SampleRing<T> {
+
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // only the consumer writes it
+
+    SampleRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return {@code false} if the ring is full
+     */
+    boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.lazySet(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return false; // the consumer has not taken this slot's previous item yet
+            } else {
+                position = tail.get(); // another producer took this position
+            }
+        }
+    }
+
+    /**
+     * Takes up to {@code max} items in the order they were offered. Only one thread may drain.
+     *
+     * @return the number of items taken
+     */
+    int drain(Consumer<T> consumer, int max) {
+        long position = head;
+        int taken = 0;
+        while (taken < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break; // empty, or the next producer has claimed the slot but not filled it yet
+            }
+            T item = items.get(index);
+            items.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            head = ++position;
+            taken++;
+            consumer.accept(item);
+        }
+        return taken;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,156 @@
+package com.thephysc.modules.video.websocket;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thephysc.modules.auth.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits and authenticates signaling connections before the WebSocket upgrade.
+ * <p>
+ * A connect storm is shed here, cheaply and with a proper HTTP status: each client IP gets a
+ * token bucket of connection attempts (429 once it is empty) and only a bounded number of
+ * handshakes may be in progress at once (503 beyond that). The JWT is then checked with a single
+ * signature-verified parse and the participant is taken from its claims, so admitting a
+ * connection needs no database access. The session id and participant are handed to
+ * {@link WebRTCSignalingHandler} as session attributes.
+ */
+@Slf4j
+@Component
+public class SignalingHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String SESSION_ID_ATTRIBUTE = "signaling.sessionId";
+    static final String PARTICIPANT_ID_ATTRIBUTE = "signaling.participantId";
+    static final String RESUME_TOKEN_ATTRIBUTE = "signaling.resumeToken";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final Semaphore handshakePermits;
+    private final double connectsPerSecond;
+    private final double connectBurst;
+    private final Cache<String, ConnectBucket> buckets;
+    private final Map<String, Counter> outcomes = new HashMap<>();
+
+    public SignalingHandshakeInterceptor(
+            JwtTokenProvider jwtTokenProvider,
+            MeterRegistry meterRegistry,
+            @Value("${video.signaling.handshake.max-concurrent:100}") int maxConcurrent,
+            @Value("${video.signaling.handshake.connects-per-second-per-ip:5}") double connectsPerSecond,
+            @Value("${video.signaling.handshake.connect-burst-per-ip:20}") int connectBurst) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.handshakePermits = new Semaphore(maxConcurrent);
+        this.connectsPerSecond = connectsPerSecond;
+        this.connectBurst = connectBurst;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(1))
+                .maximumSize(100_000)
+                .build();
+        for (String outcome : new String[]{"accepted", "rate_limited", "overloaded", "unauthorized", "bad_request"}) {
+            outcomes.put(outcome, Counter.builder("signaling.handshakes")
+                    .description("Signaling WebSocket handshakes by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String clientIp = clientIp(request);
+        if (!buckets.get(clientIp, ip -> new ConnectBucket(connectBurst)).tryAcquire(connectsPerSecond, connectBurst)) {
+            return reject(response, HttpStatus.TOO_MANY_REQUESTS, "rate_limited");
+        }
+        if (!handshakePermits.tryAcquire()) {
+            return reject(response, HttpStatus.SERVICE_UNAVAILABLE, "overloaded");
+        }
+
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams();
+        String sessionId = params.getFirst("sessionId");
+        if (sessionId == null || sessionId.isBlank()) {
+            handshakePermits.release();
+            return reject(response, HttpStatus.BAD_REQUEST, "bad_request");
+        }
+        Optional<String> participantId = jwtTokenProvider.parseVerifiedClaims(params.getFirst("token"))
+                .map(Claims::getSubject);
+        if (participantId.isEmpty()) {
+            handshakePermits.release();
+            return reject(response, HttpStatus.UNAUTHORIZED, "unauthorized");
+        }
+
+        attributes.put(SESSION_ID_ATTRIBUTE, sessionId);
+        attributes.put(PARTICIPANT_ID_ATTRIBUTE, participantId.get());
+        String resumeToken = params.getFirst("resumeToken");
+        if (resumeToken != null) {
+            attributes.put(RESUME_TOKEN_ATTRIBUTE, resumeToken);
+        }
+        outcomes.get("accepted").increment();
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+        // Only called once beforeHandshake has admitted the request and taken a permit
+        handshakePermits.release();
+    }
+
+    private boolean reject(ServerHttpResponse response, HttpStatus status, String outcome) {
+        outcomes.get(outcome).increment();
+        response.setStatusCode(status);
+        if (status == HttpStatus.TOO_MANY_REQUESTS || status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.getHeaders().set("Retry-After", "1");
+        }
+        log.debug("Rejected signaling handshake: {}", outcome);
+        return false;
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    /**
+     * Token bucket of connection attempts for one client IP.
+     */
+    private static final class ConnectBucket {
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private ConnectBucket(double capacity) {
+            this.tokens = capacity;
+        }
+
+        private synchronized boolean tryAcquire(double perSecond, double capacity) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * perSecond / TimeUnit.SECONDS.toNanos(1));
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -1,54 +1,87 @@
 package com.thephysc.modules.video.websocket;
 
-import com.thephysc.modules.auth.security.JwtTokenProvider;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.thephysc.modules.video.dto.SignalingChatDto;
 import com.thephysc.modules.video.dto.SignalingMessageDto;
+import com.thephysc.modules.video.dto.SignalingStatsDto;
+import com.thephysc.modules.video.services.MeetingMessageWriter;
 import com.thephysc.modules.video.services.WebRTCService;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import com.thephysc.modules.video.signaling.SignalingCodec;
+import com.thephysc.modules.video.signaling.SignalingEngine;
+import com.thephysc.modules.video.signaling.SignalingHeartbeat;
+import com.thephysc.modules.video.telemetry.ConnectionQualityTelemetry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * The single signaling endpoint: takes the participant authenticated by the
+ * {@link SignalingHandshakeInterceptor} and hands routing over to the {@link SignalingEngine}.
+ * <p>
+ * Chat frames are stamped and broadcast to the room first, then queued on the
+ * {@link MeetingMessageWriter}, so delivery never waits on the database. Stats frames are never
+ * routed: they go to the {@link ConnectionQualityTelemetry}, at most one per connection every
+ * {@code video.telemetry.min-interval-ms}.
+ */
+@Slf4j
 @Component
 public class WebRTCSignalingHandler extends TextWebSocketHandler {
 
+    private final SignalingEngine signalingEngine;
+    private final SignalingCodec signalingCodec;
+    private final SignalingHeartbeat signalingHeartbeat;
     private final WebRTCService webRTCService;
-    private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final MeetingMessageWriter meetingMessageWriter;
+    private final ConnectionQualityTelemetry telemetry;
+    private final int chatMaxLength;
+    private final long statsMinIntervalMs;
     private final Map<String, SessionInfo> sessionMap = new ConcurrentHashMap<>();
 
     public WebRTCSignalingHandler(
+            SignalingEngine signalingEngine,
+            SignalingCodec signalingCodec,
+            SignalingHeartbeat signalingHeartbeat,
             WebRTCService webRTCService,
-            JwtTokenProvider jwtTokenProvider,
-            UserDetailsService userDetailsService) {
+            MeetingMessageWriter meetingMessageWriter,
+            ConnectionQualityTelemetry telemetry,
+            @Value("${video.signaling.chat.max-length:4000}") int chatMaxLength,
+            @Value("${video.telemetry.min-interval-ms:500}") long statsMinIntervalMs) {
+        this.signalingEngine = signalingEngine;
+        this.signalingCodec = signalingCodec;
+        this.signalingHeartbeat = signalingHeartbeat;
         this.webRTCService = webRTCService;
-        this.jwtTokenProvider = jwtTokenProvider;
-        this.userDetailsService = userDetailsService;
+        this.meetingMessageWriter = meetingMessageWriter;
+        this.telemetry = telemetry;
+        this.chatMaxLength = chatMaxLength;
+        this.statsMinIntervalMs = statsMinIntervalMs;
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        String sessionId = extractSessionId(session);
-        String token = extractToken(session);
-        
-        if (sessionId != null && validateToken(token)) {
-            String participantId = jwtTokenProvider.extractEmail(token);
+        Map<String, Object> attributes = session.getAttributes();
+        String sessionId = (String) attributes.get(SignalingHandshakeInterceptor.SESSION_ID_ATTRIBUTE);
+        String participantId = (String) attributes.get(SignalingHandshakeInterceptor.PARTICIPANT_ID_ATTRIBUTE);
+
+        if (sessionId != null && participantId != null) {
             sessionMap.put(session.getId(), new SessionInfo(sessionId, participantId));
-            webRTCService.registerSession(sessionId, participantId, session);
+            signalingEngine.join(sessionId, participantId, session,
+                    (String) attributes.get(SignalingHandshakeInterceptor.RESUME_TOKEN_ATTRIBUTE));
+            webRTCService.recordSessionAccess(sessionId);
         } else {
             try {
                 session.close(CloseStatus.POLICY_VIOLATION);
             } catch (IOException e) {
-                // Log error
+                log.debug("Failed to close unauthenticated signaling connection {}", session.getId(), e);
             }
         }
     }
@@ -57,64 +90,91 @@ public class WebRTCSignalingHandler extends TextWebSocketHandler {
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         SessionInfo info = sessionMap.get(session.getId());
         if (info != null) {
-            SignalingMessageDto signalingMessage = SignalingMessageDto.fromJson(message.getPayload());
+            signalingHeartbeat.touch(session.getId());
+            SignalingMessageDto signalingMessage;
+            try {
+                signalingMessage = signalingCodec.decode(message.getPayload());
+            } catch (JsonProcessingException e) {
+                signalingEngine.sendError(info.getSessionId(), info.getParticipantId(),
+                        "Malformed signaling frame: " + e.getOriginalMessage());
+                return;
+            }
             // Validate that the message is for the correct session
             if (info.getSessionId().equals(signalingMessage.getSessionId())) {
                 // Set the sender ID to ensure security
                 signalingMessage.setFrom(info.getParticipantId());
-                webRTCService.handleSignalingMessage(signalingMessage);
+                if (SignalingEngine.CHAT_TYPE.equals(signalingMessage.getType())) {
+                    chat(info, signalingMessage);
+                } else if (SignalingEngine.STATS_TYPE.equals(signalingMessage.getType())) {
+                    stats(info, signalingMessage);
+                } else {
+                    signalingEngine.route(signalingMessage);
+                }
             }
         }
     }
 
-    @Override
-    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        SessionInfo info = sessionMap.remove(session.getId());
-        if (info != null) {
-            webRTCService.handleSessionClosed(info.getSessionId(), info.getParticipantId(), status);
+    private void chat(SessionInfo info, SignalingMessageDto message) {
+        SignalingChatDto chat;
+        try {
+            chat = signalingCodec.readData(message, SignalingChatDto.class);
+        } catch (IOException e) {
+            signalingEngine.sendError(info.getSessionId(), info.getParticipantId(), "Malformed chat message");
+            return;
+        }
+        if (chat == null || chat.getContent() == null || chat.getContent().isBlank()) {
+            signalingEngine.sendError(info.getSessionId(), info.getParticipantId(), "Chat message has no content");
+            return;
         }
+        if (chat.getContent().length() > chatMaxLength) {
+            signalingEngine.sendError(info.getSessionId(), info.getParticipantId(),
+                    "Chat message is longer than " + chatMaxLength + " characters");
+            return;
+        }
+        String senderName = chat.getSenderName() == null || chat.getSenderName().isBlank()
+                ? info.getParticipantId() : chat.getSenderName().strip();
+        chat.setSenderName(senderName.length() > 255 ? senderName.substring(0, 255) : senderName);
+        chat.setSentAt(Instant.now());
+        message.setTo(null);
+        message.setData(chat);
+        signalingEngine.broadcast(message);
+        meetingMessageWriter.appendChatMessage(
+                info.getSessionId(), info.getParticipantId(), chat.getSenderName(), chat.getContent());
     }
 
-    private String extractSessionId(WebSocketSession session) {
-        return UriComponentsBuilder.fromUri(session.getUri())
-                .build()
-                .getQueryParams()
-                .getFirst("sessionId");
+    private void stats(SessionInfo info, SignalingMessageDto message) {
+        long now = System.currentTimeMillis();
+        if (now - info.lastStatsAt < statsMinIntervalMs) {
+            return;
+        }
+        info.lastStatsAt = now;
+        SignalingStatsDto stats;
+        try {
+            stats = signalingCodec.readData(message, SignalingStatsDto.class);
+        } catch (IOException e) {
+            signalingEngine.sendError(info.getSessionId(), info.getParticipantId(), "Malformed stats message");
+            return;
+        }
+        telemetry.record(info.getSessionId(), info.getParticipantId(), stats);
     }
 
-    private String extractToken(WebSocketSession session) {
-        return UriComponentsBuilder.fromUri(session.getUri())
-                .build()
-                .getQueryParams()
-                .getFirst("token");
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        signalingHeartbeat.touch(session.getId());
     }
 
-    private boolean validateToken(String token) {
-        if (token == null) {
-            return false;
-        }
-
-        try {
-            if (jwtTokenProvider.validateToken(token)) {
-                String email = jwtTokenProvider.extractEmail(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                
-                // Create authentication token with the userDetails object (not a string)
-                Authentication auth = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                
-                return auth.isAuthenticated();
-            }
-        } catch (Exception e) {
-          //  logger.error("Error validating WebRTC token", e);
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        SessionInfo info = sessionMap.remove(session.getId());
+        if (info != null) {
+            signalingEngine.disconnect(info.getSessionId(), info.getParticipantId(), session, status);
         }
-
-        return false;
     }
 
     private static class SessionInfo {
         private final String sessionId;
         private final String participantId;
+        private long lastStatsAt; // messages of one connection are handled one at a time
 
         public SessionInfo(String sessionId, String participantId) {
             this.sessionId = sessionId;
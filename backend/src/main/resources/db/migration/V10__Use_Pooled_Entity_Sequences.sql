@@ -0,0 +1,41 @@
+-- Sequence ids for every entity, allocated by Hibernate in blocks of 50 (pooled-lo optimizer).
+-- Hibernate's schema update runs first and creates these sequences starting at 1, so each one is
+-- moved past the highest id already issued by the old identity columns. The id columns default to
+-- the same sequence, so an instance still inserting through the column default during a rolling
+-- deploy takes a whole block of 50 for its row and cannot collide with the new ones.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+CREATE SEQUENCE IF NOT EXISTS doctors_seq INCREMENT BY 50;
+SELECT setval('doctors_seq', COALESCE((SELECT MAX(id) FROM doctors), 0) + 1, false);
+ALTER TABLE doctors ALTER COLUMN id SET DEFAULT nextval('doctors_seq');
+
+CREATE SEQUENCE IF NOT EXISTS patients_seq INCREMENT BY 50;
+SELECT setval('patients_seq', COALESCE((SELECT MAX(id) FROM patients), 0) + 1, false);
+ALTER TABLE patients ALTER COLUMN id SET DEFAULT nextval('patients_seq');
+
+CREATE SEQUENCE IF NOT EXISTS appointments_seq INCREMENT BY 50;
+SELECT setval('appointments_seq', COALESCE((SELECT MAX(id) FROM appointments), 0) + 1, false);
+ALTER TABLE appointments ALTER COLUMN id SET DEFAULT nextval('appointments_seq');
+
+CREATE SEQUENCE IF NOT EXISTS consultations_seq INCREMENT BY 50;
+SELECT setval('consultations_seq', COALESCE((SELECT MAX(id) FROM consultations), 0) + 1, false);
+ALTER TABLE consultations ALTER COLUMN id SET DEFAULT nextval('consultations_seq');
+
+CREATE SEQUENCE IF NOT EXISTS video_sessions_seq INCREMENT BY 50;
+SELECT setval('video_sessions_seq', COALESCE((SELECT MAX(id) FROM video_sessions), 0) + 1, false);
+ALTER TABLE video_sessions ALTER COLUMN id SET DEFAULT nextval('video_sessions_seq');
+
+CREATE SEQUENCE IF NOT EXISTS meeting_rooms_seq INCREMENT BY 50;
+SELECT setval('meeting_rooms_seq', COALESCE((SELECT MAX(id) FROM meeting_rooms), 0) + 1, false);
+ALTER TABLE meeting_rooms ALTER COLUMN id SET DEFAULT nextval('meeting_rooms_seq');
+
+CREATE SEQUENCE IF NOT EXISTS meeting_participants_seq INCREMENT BY 50;
+SELECT setval('meeting_participants_seq', COALESCE((SELECT MAX(id) FROM meeting_participants), 0) + 1, false);
+ALTER TABLE meeting_participants ALTER COLUMN id SET DEFAULT nextval('meeting_participants_seq');
+
+CREATE SEQUENCE IF NOT EXISTS meeting_messages_seq INCREMENT BY 50;
+SELECT setval('meeting_messages_seq', COALESCE((SELECT MAX(id) FROM meeting_messages), 0) + 1, false);
+ALTER TABLE meeting_messages ALTER COLUMN id SET DEFAULT nextval('meeting_messages_seq');
@@ -0,0 +1,3 @@
+-- Chat history is paged newest first by (created_at, id) within a room
+CREATE INDEX IF NOT EXISTS idx_meeting_messages_room_created
+    ON meeting_messages(meeting_room_id, created_at, id);
@@ -0,0 +1,14 @@
+-- Upcoming appointments are looked up by status and start time to prepare their video sessions
+CREATE INDEX IF NOT EXISTS idx_appointments_status_date
+    ON appointments(status, appointment_date);
+
+-- An appointment has at most one consultation, even when two nodes prepare it at once. Hibernate's
+-- schema update adds this key too, from the entity mapping, unless existing rows violate it. A unique
+-- index of the same name, as earlier builds created, already enforces it.
+DO $$
+BEGIN
+    IF to_regclass('uk_consultations_appointment') IS NULL THEN
+        ALTER TABLE consultations
+            ADD CONSTRAINT uk_consultations_appointment UNIQUE (appointment_id);
+    END IF;
+END $$;
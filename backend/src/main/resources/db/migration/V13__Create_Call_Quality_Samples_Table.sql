@@ -0,0 +1,23 @@
+-- Connection quality per participant and flush window, downsampled from client WebRTC stats
+CREATE SEQUENCE IF NOT EXISTS call_quality_samples_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS call_quality_samples (
+    id BIGINT PRIMARY KEY,
+    session_id VARCHAR(255) NOT NULL,
+    participant_id VARCHAR(255) NOT NULL,
+    window_start TIMESTAMP NOT NULL,
+    window_end TIMESTAMP NOT NULL,
+    sample_count INTEGER NOT NULL,
+    rtt_p50_ms DOUBLE PRECISION,
+    rtt_p95_ms DOUBLE PRECISION,
+    jitter_p50_ms DOUBLE PRECISION,
+    jitter_p95_ms DOUBLE PRECISION,
+    packet_loss_p50 DOUBLE PRECISION,
+    packet_loss_p95 DOUBLE PRECISION,
+    bitrate_p50_kbps DOUBLE PRECISION,
+    bitrate_p05_kbps DOUBLE PRECISION,
+    quality VARCHAR(20)
+);
+
+CREATE INDEX IF NOT EXISTS idx_call_quality_samples_session_window
+    ON call_quality_samples(session_id, window_end);
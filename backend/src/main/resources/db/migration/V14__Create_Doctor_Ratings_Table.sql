@@ -0,0 +1,19 @@
+-- Who rated which doctor, so a patient rates each doctor once; the averages stay on the doctors row
+CREATE SEQUENCE IF NOT EXISTS doctor_ratings_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS doctor_ratings (
+    id BIGINT PRIMARY KEY,
+    doctor_id BIGINT NOT NULL REFERENCES doctors(id),
+    patient_id BIGINT NOT NULL REFERENCES patients(id),
+    rating INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Hibernate's schema update adds this key too, from the entity mapping
+DO $$
+BEGIN
+    IF to_regclass('uk_doctor_ratings_doctor_patient') IS NULL THEN
+        ALTER TABLE doctor_ratings
+            ADD CONSTRAINT uk_doctor_ratings_doctor_patient UNIQUE (doctor_id, patient_id);
+    END IF;
+END $$;
@@ -0,0 +1,7 @@
+-- Ratings are added to the doctors row in the same transaction that marks them applied. Ratings
+-- recorded before this flag existed were added by an in-memory flush, so they start out applied.
+ALTER TABLE doctor_ratings ADD COLUMN IF NOT EXISTS applied BOOLEAN NOT NULL DEFAULT TRUE;
+ALTER TABLE doctor_ratings ALTER COLUMN applied SET DEFAULT FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_doctor_ratings_unapplied
+    ON doctor_ratings(id) WHERE NOT applied;
@@ -0,0 +1,8 @@
+-- Signaling envelopes too large for a NOTIFY payload; short-lived, so not WAL-logged
+CREATE UNLOGGED TABLE IF NOT EXISTS signaling_spill (
+    id BIGSERIAL PRIMARY KEY,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_signaling_spill_created_at ON signaling_spill(created_at);
@@ -0,0 +1,15 @@
+-- One row per participant and room; the join path upserts against this key. Hibernate's schema
+-- update adds it too, from the entity mapping, unless existing rows violate it.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_meeting_participants_room_participant') THEN
+        -- Duplicates left by concurrent joins before the key existed; the newest row is kept
+        DELETE FROM meeting_participants p
+        USING meeting_participants newer
+        WHERE newer.meeting_room_id = p.meeting_room_id
+          AND newer.participant_id = p.participant_id
+          AND newer.id > p.id;
+        ALTER TABLE meeting_participants
+            ADD CONSTRAINT uk_meeting_participants_room_participant UNIQUE (meeting_room_id, participant_id);
+    END IF;
+END $$;
@@ -0,0 +1,287 @@
+package com.thephysc.modules.video.signaling;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thephysc.ThePhyscApplication;
+import com.thephysc.modules.auth.security.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Starts two application nodes against one database and checks that participants of the same
+ * session reach each other whether they are connected to the same node or not.
+ * <p>
+ * By default both nodes use the in-memory H2 database of the {@code loadtest} profile and a
+ * loopback bus that passes the encoded envelopes between them in this JVM. With
+ * {@code -Dsignaling.it.postgres-url=jdbc:postgresql://...} (and optionally
+ * {@code signaling.it.postgres-username} and {@code signaling.it.postgres-password}) they use that
+ * database and the {@link PostgresSignalingBus} instead.
+ */
+class SignalingClusterIntegrationTest {
+
+    private static final String H2_URL = "jdbc:h2:mem:signaling-cluster;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    private final List<WebSocket> sockets = new ArrayList<>();
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void participantsOnDifferentNodesReachEachOther() throws Exception {
+        BlockingQueue<JsonNode> alice = new LinkedBlockingQueue<>();
+        BlockingQueue<JsonNode> bob = new LinkedBlockingQueue<>();
+        connect(nodeA, "cross-node", "alice@cluster.test", alice);
+        awaitFrame(alice, "session");
+        WebSocket bobSocket = connect(nodeB, "cross-node", "bob@cluster.test", bob);
+        awaitFrame(bob, "session");
+
+        JsonNode joined = awaitFrame(alice, "new-participant");
+        assertEquals("bob@cluster.test", joined.get("data").asText());
+
+        double forwarded = messageCount(nodeB, "offer", "forwarded");
+        bobSocket.sendText("{\"sessionId\":\"cross-node\",\"to\":\"alice@cluster.test\",\"type\":\"offer\","
+                + "\"data\":{\"sdp\":\"v=0\"}}", true).join();
+
+        JsonNode offer = awaitFrame(alice, "offer");
+        assertEquals("bob@cluster.test", offer.get("from").asText());
+        assertEquals("v=0", offer.get("data").get("sdp").asText());
+        // Counted once published, which may be after the bus has already delivered it
+        awaitMessageCount(nodeB, "offer", "forwarded", forwarded + 1);
+    }
+
+    @Test
+    void participantsOnTheSameNodeStayLocal() throws Exception {
+        BlockingQueue<JsonNode> carol = new LinkedBlockingQueue<>();
+        BlockingQueue<JsonNode> dave = new LinkedBlockingQueue<>();
+        connect(nodeA, "same-node", "carol@cluster.test", carol);
+        awaitFrame(carol, "session");
+        WebSocket daveSocket = connect(nodeA, "same-node", "dave@cluster.test", dave);
+        awaitFrame(dave, "session");
+
+        double forwarded = messageCount(nodeA, "offer", "forwarded");
+        double routed = messageCount(nodeA, "offer", "routed");
+        daveSocket.sendText("{\"sessionId\":\"same-node\",\"to\":\"carol@cluster.test\",\"type\":\"offer\","
+                + "\"data\":{\"sdp\":\"v=0\"}}", true).join();
+
+        assertEquals("dave@cluster.test", awaitFrame(carol, "offer").get("from").asText());
+        awaitMessageCount(nodeA, "offer", "routed", routed + 1);
+        assertEquals(forwarded, messageCount(nodeA, "offer", "forwarded"));
+    }
+
+    @AfterEach
+    void closeSockets() {
+        for (WebSocket socket : sockets) {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "").exceptionally(e -> null).join();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "video.signaling.node-id=" + nodeId,
+                "video.signaling.cluster.heartbeat-ms=200",
+                "camunda.bpm.generate-unique-process-engine-name=true",
+                "spring.devtools.restart.enabled=false",
+                "storage.type=local"));
+        String postgresUrl = System.getProperty("signaling.it.postgres-url");
+        SpringApplicationBuilder builder;
+        if (postgresUrl != null) {
+            properties.add("spring.datasource.url=" + postgresUrl);
+            properties.add("spring.datasource.username=" + System.getProperty("signaling.it.postgres-username", "postgres"));
+            properties.add("spring.datasource.password=" + System.getProperty("signaling.it.postgres-password", "postgres"));
+            properties.add("video.signaling.bus=postgres");
+            builder = new SpringApplicationBuilder(ThePhyscApplication.class);
+        } else {
+            properties.add("spring.datasource.url=" + H2_URL);
+            properties.add("video.signaling.bus=loopback");
+            builder = new SpringApplicationBuilder(ThePhyscApplication.class, LoopbackBusConfig.class)
+                    .profiles("loadtest");
+        }
+        // As arguments, so they win over application.yml
+        return builder.run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    private WebSocket connect(ConfigurableApplicationContext node, String sessionId, String email,
+                              BlockingQueue<JsonNode> received) {
+        String token = node.getBean(JwtTokenProvider.class).generateToken(email, "ROLE_PATIENT");
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        URI uri = URI.create("ws://localhost:" + port + "/api" + SignalingCluster.SIGNALING_PATH
+                + "?sessionId=" + sessionId + "&token=" + token);
+        WebSocket socket = httpClient.newWebSocketBuilder().buildAsync(uri, new WebSocket.Listener() {
+            private final StringBuilder text = new StringBuilder();
+
+            @Override
+            public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                text.append(data);
+                if (last) {
+                    try {
+                        received.add(objectMapper.readTree(text.toString()));
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Unreadable signaling frame: " + text, e);
+                    }
+                    text.setLength(0);
+                }
+                webSocket.request(1);
+                return null;
+            }
+        }).join();
+        sockets.add(socket);
+        return socket;
+    }
+
+    private static JsonNode awaitFrame(BlockingQueue<JsonNode> received, String type) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            JsonNode frame = received.poll(remaining, TimeUnit.NANOSECONDS);
+            if (frame != null && type.equals(frame.path("type").asText())) {
+                return frame;
+            }
+        }
+        assertNotNull(null, "No '" + type + "' frame within " + TIMEOUT_SECONDS + " s");
+        return null;
+    }
+
+    private static void awaitMessageCount(ConfigurableApplicationContext node, String type, String outcome,
+                                          double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (messageCount(node, type, outcome) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, messageCount(node, type, outcome));
+    }
+
+    private static double messageCount(ConfigurableApplicationContext node, String type, String outcome) {
+        return node.getBean(MeterRegistry.class).get("signaling.messages")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+
+    // Component scanning finds this too, outside of a test context
+    @TestConfiguration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "video.signaling.bus", havingValue = "loopback")
+    static class LoopbackBusConfig {
+
+        @Bean
+        SignalingBus loopbackSignalingBus(Environment environment) {
+            return new LoopbackSignalingBus(environment.getRequiredProperty("video.signaling.node-id"));
+        }
+    }
+
+    /**
+     * Stands in for the network between the nodes of this JVM: each envelope is encoded as
+     * {@link PostgresSignalingBus} would, and decoded and handled on the receiving node's own thread.
+     */
+    static final class LoopbackSignalingBus implements SignalingBus {
+
+        private static final Map<String, LoopbackSignalingBus> nodes = new ConcurrentHashMap<>();
+
+        private final String nodeId;
+        private final List<Consumer<SignalingEnvelope>> listeners = new CopyOnWriteArrayList<>();
+        private final ExecutorService receiver;
+
+        LoopbackSignalingBus(String nodeId) {
+            this.nodeId = nodeId;
+            this.receiver = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "loopback-bus-" + nodeId);
+                thread.setDaemon(true);
+                return thread;
+            });
+            nodes.put(nodeId, this);
+        }
+
+        @Override
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        @Override
+        public void publish(SignalingEnvelope envelope) {
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(envelope);
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot encode signaling envelope " + envelope.getKind(), e);
+            }
+            nodes.forEach((id, node) -> {
+                if (!id.equals(nodeId) && (envelope.getTargetNode() == null || envelope.getTargetNode().equals(id))) {
+                    node.receive(payload);
+                }
+            });
+        }
+
+        @Override
+        public void subscribe(Consumer<SignalingEnvelope> listener) {
+            listeners.add(listener);
+        }
+
+        @PreDestroy
+        void stop() {
+            nodes.remove(nodeId, this);
+            receiver.shutdownNow();
+        }
+
+        private void receive(String payload) {
+            receiver.execute(() -> {
+                try {
+                    SignalingEnvelope envelope = objectMapper.readValue(payload, SignalingEnvelope.class);
+                    listeners.forEach(listener -> listener.accept(envelope));
+                } catch (Exception e) {
+                    throw new IllegalStateException("Cannot decode signaling envelope", e);
+                }
+            });
+        }
+    }
+}
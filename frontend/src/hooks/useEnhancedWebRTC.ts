@@ -317,34 +317,60 @@ const useEnhancedWebRTC = ({
 
   // Handle signaling messages
   const handleSignalingMessage = useCallback(async (message: SignalingMessage) => {
-    const { type, from, data } = message;
+    if (!message) return;
     
-    if (!from) return;
+    const { type, from, data } = message;
+    if (!from && type !== 'error') return;
     
     switch (type) {
-      case 'user-joined':
-        // Create offer for new user
-        await createOffer(from);
+      case 'session':
+        // The server has registered this connection
+        break;
+        
+      case 'participants':
+        // Who was already in the session; each of them sends us an offer
+        break;
+        
+      case 'new-participant':
+        // A new participant joined, initiate connection
+        if (typeof data === 'string') {
+          await createOffer(data);
+        }
+        break;
+        
+      case 'participant-left':
+        // A participant left, clean up
+        if (typeof data === 'string') {
+          closePeerConnection(data);
+        }
         break;
         
       case 'offer':
         // Received an offer from another user
-        await handleOffer(from, data);
+        await handleOffer(from!, data);
         break;
         
       case 'answer':
         // Received an answer to our offer
-        await handleAnswer(from, data);
+        await handleAnswer(from!, data);
         break;
         
       case 'ice-candidate':
         // Received ICE candidate
-        await handleIceCandidate(from, data);
+        await handleIceCandidate(from!, data);
+        break;
+        
+      case 'ice-candidates':
+        // Candidates the server batched together, in the order they were sent
+        if (Array.isArray(data)) {
+          for (const candidate of data) {
+            await handleIceCandidate(from!, candidate);
+          }
+        }
         break;
         
-      case 'user-left':
-        // User left the session
-        closePeerConnection(from);
+      case 'error':
+        setError(typeof data === 'string' ? data : 'Signaling error');
         break;
         
       default:
@@ -353,7 +379,7 @@ const useEnhancedWebRTC = ({
   }, [createOffer, handleOffer, handleAnswer, handleIceCandidate, closePeerConnection]);
 
   // Connect to signaling server via WebSocket
-  const connectSignalingServer = useCallback(() => {
+  const connectSignalingServer = useCallback((wsUrl: string) => {
     // Don't create new connection if already connected or connecting
     if (socketRef.current && socketRef.current.readyState === WebSocket.OPEN) {
       console.log('WebSocket already connected, skipping...');
@@ -375,32 +401,24 @@ const useEnhancedWebRTC = ({
       socketRef.current = null;
     }
 
+    // In a cluster the URL points at the node that owns the session; otherwise it is relative
     const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
-    // Connect to backend WebSocket server
-    const wsUrl = `${protocol}//localhost:8080/api/ws/rtc?sessionId=${sessionId}`;
+    const wsFullUrl = /^wss?:\/\//.test(wsUrl) ? wsUrl : `${protocol}//${window.location.host}${wsUrl}`;
     
-    console.log('Attempting WebSocket connection to:', wsUrl);
-    console.log('Session ID:', sessionId);
-    console.log('Patient ID:', patientInfo.id);
+    console.log('Attempting WebSocket connection for session:', sessionId);
     
-    const socket = new WebSocket(wsUrl);
+    const socket = new WebSocket(wsFullUrl);
     socketRef.current = socket;
     
+    // The server announces us to the others with new-participant once it has registered the connection
     socket.onopen = () => {
       console.log('✓ Connected to signaling server successfully');
       setIsConnected(true);
       setError(null);
-      
-      // Announce presence
-      sendSignalingMessage({
-        type: 'user-joined',
-        from: patientInfo.id // This would be dynamic based on current user
-      });
     };
     
     socket.onmessage = async (event) => {
       try {
-        console.log('Received signaling message:', event.data);
         const message = JSON.parse(event.data) as SignalingMessage;
         await handleSignalingMessage(message);
       } catch (err) {
@@ -425,11 +443,29 @@ const useEnhancedWebRTC = ({
     socket.onerror = (error) => {
       console.error('WebSocket error details:', error);
       console.error('WebSocket state:', socket.readyState);
-      console.error('WebSocket URL was:', wsUrl);
       setError('WebSocket connection error - proceeding without real-time signaling');
       // Don't let WebSocket errors completely block video functionality
     };
-  }, [sessionId, handleSignalingMessage, sendSignalingMessage, patientInfo.id]);
+  }, [sessionId, handleSignalingMessage]);
+
+  // The signaling URL, token included: from the join info of a video session, or the plain
+  // endpoint with the signed-in user's token for other rooms, such as meetings
+  const getSignalingUrl = useCallback(async (): Promise<string | null> => {
+    const token = localStorage.getItem('token');
+    if (!token) return null;
+    
+    const joinResponse = await fetch(`/api/video/join/${sessionId}`, {
+      headers: {
+        'Authorization': `Bearer ${token}`
+      }
+    });
+    if (joinResponse.ok) {
+      const joinInfo = await joinResponse.json();
+      return joinInfo.wsUrl;
+    }
+    
+    return `/api/ws/rtc?sessionId=${encodeURIComponent(sessionId)}&token=${encodeURIComponent(token)}`;
+  }, [sessionId]);
 
   // Initialize WebRTC
   const initWebRTC = useCallback(async () => {
@@ -472,7 +508,12 @@ const useEnhancedWebRTC = ({
       
       // Try to connect to signaling server
       try {
-        connectSignalingServer();
+        const signalingUrl = await getSignalingUrl();
+        if (signalingUrl) {
+          connectSignalingServer(signalingUrl);
+        } else {
+          console.warn('Not signed in, continuing without signaling');
+        }
       } catch (wsError) {
         console.warn('WebSocket connection failed, continuing without signaling:', wsError);
         // Continue without WebSocket for now
@@ -484,7 +525,7 @@ const useEnhancedWebRTC = ({
       setError(err instanceof Error ? err.message : 'Unknown WebRTC initialization error');
       return null;
     }
-  }, [currentVideoQuality, getVideoConstraints, connectSignalingServer]);
+  }, [currentVideoQuality, getVideoConstraints, getSignalingUrl, connectSignalingServer]);
 
   // Toggle video
   const toggleVideo = useCallback((): boolean => {
@@ -224,18 +224,26 @@ const useWebRTC = ({ sessionId, token }: UseWebRTCProps): UseWebRTCReturn => {
     if (!from && type !== 'error') return;
     
     switch (type) {
+      case 'session':
+        // The server has registered this connection
+        break;
+        
+      case 'participants':
+        // Who was already in the session; each of them sends us an offer
+        break;
+        
       case 'new-participant':
-        // A new participant joined, initiate connection
-        if (from) {
-          await createPeerConnection(from);
-          await createOffer(from);
+        // A new participant joined, initiate connection; presence comes from "system" and names them in data
+        if (typeof data === 'string') {
+          await createPeerConnection(data);
+          await createOffer(data);
         }
         break;
         
       case 'participant-left':
         // A participant left, clean up
-        if (from) {
-          closePeerConnection(from);
+        if (typeof data === 'string') {
+          closePeerConnection(data);
         }
         break;
         
@@ -260,6 +268,15 @@ const useWebRTC = ({ sessionId, token }: UseWebRTCProps): UseWebRTCReturn => {
         }
         break;
         
+      case 'ice-candidates':
+        // Candidates the server batched together, in the order they were sent
+        if (from && Array.isArray(data)) {
+          for (const candidate of data) {
+            await handleIceCandidate(from, candidate);
+          }
+        }
+        break;
+        
       default:
         console.warn('Unknown message type:', type);
     }
@@ -267,9 +284,10 @@ const useWebRTC = ({ sessionId, token }: UseWebRTCProps): UseWebRTCReturn => {
 
   // Connect to signaling server via WebSocket
   const connectSignalingServer = useCallback((wsUrl: string) => {
+    // In a cluster the URL points at the node that owns the session; otherwise it is relative
     const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
-    const wsFullUrl = `${protocol}//${window.location.host}${wsUrl}`;
-    
+    const wsFullUrl = /^wss?:\/\//.test(wsUrl) ? wsUrl : `${protocol}//${window.location.host}${wsUrl}`;
+
     const socket = new WebSocket(wsFullUrl);
     socketRef.current = socket;
     
@@ -0,0 +1,144 @@
+package com.thephysc.loadtest;
+
+import com.thephysc.modules.doctors.dto.DoctorSummaryDto;
+import com.thephysc.modules.doctors.search.DoctorSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Doctor search over {@code doctors} synthetic profiles (50,000 by default) with the backend's
+ * {@link DoctorSearchIndex}, one benchmark per kind of query the search box sends:
+ * <ul>
+ *   <li><b>prefix</b>: a few letters, as typed ("car");</li>
+ *   <li><b>exact</b>: a whole specialty ("cardiology");</li>
+ *   <li><b>fuzzy</b>: a misspelling ("cardiolgy");</li>
+ *   <li><b>name</b>: first name and specialty prefix ("sarah derm");</li>
+ * </ul>
+ * against <b>substringScan</b>, the per-row work of the {@code LOWER(...) LIKE '%term%'} query it
+ * replaced, done in memory and so without its I/O. <b>rebuild</b> builds the whole index, as on
+ * startup, and <b>upsert</b> reindexes one changed profile, as after a {@code DoctorChangedEvent}.
+ * The index classes are compiled from {@code ../backend} by the {@code jmh} profile.
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar DoctorSearchBenchmark -p doctors=50000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DoctorSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Sarah", "James", "Maria", "David", "Aisha", "Michael", "Elena", "Robert", "Priya", "Thomas",
+            "Fatima", "Daniel", "Sofia", "William", "Hannah", "Ahmed", "Laura", "Joseph", "Mei", "Carlos"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Garcia", "Martinez", "Brown", "Davis", "Rodriguez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Thompson", "White", "Harris", "Clark",
+            "Lewis", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Nguyen", "Hill", "Adams", "Baker"};
+    private static final String[] SPECIALTIES = {
+            "Cardiology", "Dermatology", "Neurology", "Pediatrics", "Psychiatry", "Oncology", "Orthopedics",
+            "Gastroenterology", "Endocrinology", "Ophthalmology", "Radiology", "Urology", "Nephrology",
+            "Rheumatology", "Pulmonology", "General Practice"};
+    private static final String[] SPECIALIZATIONS = {
+            "Heart Failure", "Interventional Cardiology", "Acne", "Skin Cancer", "Epilepsy", "Stroke",
+            "Neonatology", "Child Development", "Anxiety Disorders", "Depression", "Breast Cancer",
+            "Sports Medicine", "Joint Replacement", "Diabetes", "Thyroid Disorders", "Sleep Medicine"};
+
+    @Param({"50000"})
+    public int doctors;
+
+    private List<DoctorSummaryDto> profiles;
+    private DoctorSearchIndex index;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        profiles = new ArrayList<>(doctors);
+        for (long id = 1; id <= doctors; id++) {
+            profiles.add(profile(id));
+        }
+        index = new DoctorSearchIndex();
+        index.replaceAll(profiles);
+    }
+
+    @Benchmark
+    public DoctorSearchIndex.SearchResult prefix() {
+        return index.search("car", 0, 20);
+    }
+
+    @Benchmark
+    public DoctorSearchIndex.SearchResult exact() {
+        return index.search("cardiology", 0, 20);
+    }
+
+    @Benchmark
+    public DoctorSearchIndex.SearchResult fuzzy() {
+        return index.search("cardiolgy", 0, 20);
+    }
+
+    @Benchmark
+    public DoctorSearchIndex.SearchResult name() {
+        return index.search("sarah derm", 0, 20);
+    }
+
+    @Benchmark
+    public int substringScan() {
+        int matches = 0;
+        for (DoctorSummaryDto doctor : profiles) {
+            if (doctor.getSpecialty().toLowerCase(Locale.ROOT).contains("car")
+                    || doctor.getFirstName().toLowerCase(Locale.ROOT).contains("car")
+                    || doctor.getLastName().toLowerCase(Locale.ROOT).contains("car")) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DoctorSearchIndex rebuild() {
+        DoctorSearchIndex rebuilt = new DoctorSearchIndex();
+        rebuilt.replaceAll(profiles);
+        return rebuilt;
+    }
+
+    @Benchmark
+    public void upsert() {
+        index.upsert(profile(1 + random.nextInt(doctors)));
+    }
+
+    private DoctorSummaryDto profile(long id) {
+        return DoctorSummaryDto.builder()
+                .id(id)
+                .userId(id)
+                .firstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
+                .lastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)])
+                .specialty(SPECIALTIES[random.nextInt(SPECIALTIES.length)])
+                .specializations(Set.of(SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)]))
+                .yearsOfExperience(1 + random.nextInt(40))
+                .consultationFee(50.0 + random.nextInt(250))
+                .averageRating(random.nextInt(10) == 0 ? null : 1.0 + random.nextDouble() * 4.0)
+                .ratingCount(random.nextInt(500))
+                .build();
+    }
+}
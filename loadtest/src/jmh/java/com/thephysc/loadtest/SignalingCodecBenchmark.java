@@ -0,0 +1,130 @@
+package com.thephysc.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thephysc.modules.video.dto.SignalingMessageDto;
+import com.thephysc.modules.video.signaling.SignalingCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frames per second through the backend's {@link SignalingCodec}, against the map round trip it
+ * replaced, for an SDP offer and an ICE candidate:
+ * <ul>
+ *   <li><b>decode</b>: reading the routing fields of an inbound frame;</li>
+ *   <li><b>relay</b>: decoding a frame and encoding it once for its recipient;</li>
+ *   <li><b>fanOut</b>: encoding one frame and sharing it with {@code recipients} connections;</li>
+ *   <li><b>mapRoundTrip</b>: parsing the frame into a {@code Map} and writing it back once per
+ *   recipient, as signaling did before the codec.</li>
+ * </ul>
+ * The codec classes are compiled from {@code ../backend} by the {@code jmh} profile. Run with the
+ * GC profiler for allocations per frame ({@code gc.alloc.rate.norm}, bytes per operation):
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar SignalingCodecBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignalingCodecBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+
+    @Param({"offer", "ice-candidate"})
+    public String frameType;
+
+    @Param({"1", "8"})
+    public int recipients;
+
+    private ObjectMapper objectMapper;
+    private SignalingCodec codec;
+    private String frame;
+    private SignalingMessageDto decoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        codec = new SignalingCodec(objectMapper);
+        frame = "offer".equals(frameType) ? offerFrame() : candidateFrame();
+        decoded = codec.decode(frame);
+        decoded.setFrom("doctor-7@thephysc.test");
+    }
+
+    @Benchmark
+    public SignalingMessageDto decode() throws IOException {
+        return codec.decode(frame);
+    }
+
+    @Benchmark
+    public TextMessage relay() throws IOException {
+        SignalingMessageDto message = codec.decode(frame);
+        message.setFrom("doctor-7@thephysc.test");
+        return codec.encode(message);
+    }
+
+    @Benchmark
+    public void fanOut(Blackhole blackhole) {
+        TextMessage shared = codec.encode(decoded);
+        for (int i = 0; i < recipients; i++) {
+            blackhole.consume(shared);
+        }
+    }
+
+    @Benchmark
+    public void mapRoundTrip(Blackhole blackhole) throws IOException {
+        Map<String, Object> message = objectMapper.readValue(frame, MAP_TYPE);
+        message.put("from", "doctor-7@thephysc.test");
+        for (int i = 0; i < recipients; i++) {
+            blackhole.consume(new TextMessage(objectMapper.writeValueAsString(message)));
+        }
+    }
+
+    // An audio and video offer of the size browsers send, about 4 KB
+    private static String offerFrame() throws IOException {
+        StringBuilder sdp = new StringBuilder("v=0\r\no=- 4611731400430051336 2 IN IP4 127.0.0.1\r\ns=-\r\nt=0 0\r\n"
+                + "a=group:BUNDLE 0 1\r\na=msid-semantic: WMS stream\r\n");
+        for (String media : new String[]{"audio 9 UDP/TLS/RTP/SAVPF 111 63 103 104 9 0 8 106 105 13 110 112 113 126",
+                "video 9 UDP/TLS/RTP/SAVPF 96 97 102 122 127 121 125 107 108 109 124 120 123 119 35 36 41 42"}) {
+            sdp.append("m=").append(media).append("\r\nc=IN IP4 0.0.0.0\r\na=rtcp:9 IN IP4 0.0.0.0\r\n"
+                    + "a=ice-ufrag:Oq2x\r\na=ice-pwd:9cQ0uQ1AoZ3PZ2sVhV7GxW2h\r\na=ice-options:trickle\r\n"
+                    + "a=fingerprint:sha-256 5C:2B:8E:29:47:0A:4E:71:D2:A8:7B:61:9A:33:0E:6B:A4:55:8C:13:"
+                    + "C9:0F:2A:7D:B1:46:E3:58:99:20:6C:F1\r\na=setup:actpass\r\na=sendrecv\r\na=rtcp-mux\r\n");
+            for (int payloadType = 96; payloadType < 116; payloadType++) {
+                sdp.append("a=rtpmap:").append(payloadType).append(" VP8/90000\r\na=rtcp-fb:").append(payloadType)
+                        .append(" nack pli\r\na=fmtp:").append(payloadType).append(" apt=").append(payloadType - 1)
+                        .append("\r\n");
+            }
+        }
+        return new ObjectMapper().writeValueAsString(Map.of(
+                "sessionId", "consultation-42",
+                "to", "patient-19@thephysc.test",
+                "type", "offer",
+                "data", Map.of("type", "offer", "sdp", sdp.toString())));
+    }
+
+    private static String candidateFrame() {
+        return "{\"sessionId\":\"consultation-42\",\"to\":\"patient-19@thephysc.test\",\"type\":\"ice-candidate\","
+                + "\"data\":{\"candidate\":\"candidate:842163049 1 udp 1677729535 203.0.113.7 51473 typ srflx "
+                + "raddr 10.0.0.12 rport 51473 generation 0 ufrag Oq2x network-cost 999\","
+                + "\"sdpMid\":\"0\",\"sdpMLineIndex\":0}}";
+    }
+}
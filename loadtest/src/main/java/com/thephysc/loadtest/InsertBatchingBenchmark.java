@@ -0,0 +1,183 @@
+package com.thephysc.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Measures bulk insert throughput for the two id strategies the entities have used, with the
+ * statements Hibernate issues for each:
+ * <ul>
+ *   <li><b>identity</b>: every row is its own {@code INSERT ... RETURNING id} round trip, because
+ *   the id is only known after the insert, which disables JDBC batching;</li>
+ *   <li><b>pooled-lo</b>: one {@code nextval} per block of ids, then inserts sent as JDBC batches;</li>
+ *   <li><b>pooled-lo + rewrite</b>: the same, with the driver's {@code reWriteBatchedInserts}
+ *   folding each batch into multi-row inserts.</li>
+ * </ul>
+ * Rows are shaped like {@code meeting_messages}; the tables are created and dropped by the run.
+ * <pre>
+ * java -cp target/the-physc-loadtest-0.0.1-SNAPSHOT.jar com.thephysc.loadtest.InsertBatchingBenchmark \
+ *     --jdbc-url=jdbc:postgresql://localhost:5432/health-service --rows=20000
+ * </pre>
+ * Other options: {@code --user}, {@code --password}, {@code --batch-size} (default 50, as
+ * {@code hibernate.jdbc.batch_size}) and {@code --runs}.
+ */
+public final class InsertBatchingBenchmark {
+
+    private static final String COLUMNS = "meeting_room_id, sender_id, sender_name, content, created_at";
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final int rows;
+    private final int batchSize;
+    private final int runs;
+
+    private InsertBatchingBenchmark(Map<String, String> options) {
+        this.jdbcUrl = options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/health-service");
+        this.user = options.getOrDefault("user", "postgres");
+        this.password = options.getOrDefault("password", "postgres");
+        this.rows = Integer.parseInt(options.getOrDefault("rows", "20000"));
+        this.batchSize = Integer.parseInt(options.getOrDefault("batch-size", "50"));
+        this.runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                System.err.println("Expected --name=value but got " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        new InsertBatchingBenchmark(options).run();
+    }
+
+    private void run() throws SQLException {
+        try (Connection connection = connect(false)) {
+            createTables(connection);
+        }
+        try {
+            System.out.printf("Inserting %d rows per run, batch size %d, best of %d runs (first run is warm-up)%n",
+                    rows, batchSize, runs);
+            report("identity", bestOf(this::insertIdentity, false));
+            report("pooled-lo", bestOf(this::insertPooledLo, false));
+            report("pooled-lo + rewrite", bestOf(this::insertPooledLo, true));
+        } finally {
+            try (Connection connection = connect(false); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS insert_benchmark_identity");
+                statement.execute("DROP TABLE IF EXISTS insert_benchmark_pooled");
+                statement.execute("DROP SEQUENCE IF EXISTS insert_benchmark_seq");
+            }
+        }
+    }
+
+    private long bestOf(Insert insert, boolean rewriteBatchedInserts) throws SQLException {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run <= runs; run++) {
+            try (Connection connection = connect(rewriteBatchedInserts)) {
+                truncate(connection);
+                connection.setAutoCommit(false);
+                long start = System.nanoTime();
+                insert.run(connection);
+                connection.commit();
+                long elapsed = System.nanoTime() - start;
+                if (run > 0) {
+                    best = Math.min(best, elapsed);
+                }
+            }
+        }
+        return best;
+    }
+
+    private void insertIdentity(Connection connection) throws SQLException {
+        String sql = "INSERT INTO insert_benchmark_identity (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                bindRow(insert, 1, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                }
+            }
+        }
+    }
+
+    private void insertPooledLo(Connection connection) throws SQLException {
+        String sql = "INSERT INTO insert_benchmark_pooled (id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement nextBlock = connection.prepareStatement("SELECT nextval('insert_benchmark_seq')");
+             PreparedStatement insert = connection.prepareStatement(sql)) {
+            long nextId = 0;
+            long blockEnd = 0;
+            for (int i = 0; i < rows; i++) {
+                if (nextId == blockEnd) {
+                    try (ResultSet block = nextBlock.executeQuery()) {
+                        block.next();
+                        nextId = block.getLong(1);
+                        blockEnd = nextId + batchSize;
+                    }
+                }
+                insert.setLong(1, nextId++);
+                bindRow(insert, 2, i);
+                insert.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void bindRow(PreparedStatement insert, int first, int i) throws SQLException {
+        insert.setLong(first, i % 100 + 1);
+        insert.setString(first + 1, "participant-" + i % 10);
+        insert.setString(first + 2, "Participant " + i % 10);
+        insert.setString(first + 3, "Message " + i + " in a meeting chat");
+        insert.setTimestamp(first + 4, new Timestamp(System.currentTimeMillis()));
+    }
+
+    private void createTables(Connection connection) throws SQLException {
+        String columns = "meeting_room_id BIGINT NOT NULL, sender_id VARCHAR(255) NOT NULL, "
+                + "sender_name VARCHAR(255) NOT NULL, content TEXT, created_at TIMESTAMP NOT NULL)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS insert_benchmark_identity");
+            statement.execute("DROP TABLE IF EXISTS insert_benchmark_pooled");
+            statement.execute("DROP SEQUENCE IF EXISTS insert_benchmark_seq");
+            statement.execute("CREATE TABLE insert_benchmark_identity (id BIGSERIAL PRIMARY KEY, " + columns);
+            statement.execute("CREATE TABLE insert_benchmark_pooled (id BIGINT PRIMARY KEY, " + columns);
+            statement.execute("CREATE SEQUENCE insert_benchmark_seq INCREMENT BY " + batchSize);
+        }
+    }
+
+    private static void truncate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE insert_benchmark_identity, insert_benchmark_pooled");
+        }
+    }
+
+    private Connection connect(boolean rewriteBatchedInserts) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", user);
+        properties.setProperty("password", password);
+        properties.setProperty("reWriteBatchedInserts", Boolean.toString(rewriteBatchedInserts));
+        return DriverManager.getConnection(jdbcUrl, properties);
+    }
+
+    private void report(String strategy, long nanos) {
+        System.out.printf("  %-20s %8.0f rows/s  (%d ms)%n", strategy, rows / (nanos / 1e9), nanos / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface Insert {
+        void run(Connection connection) throws SQLException;
+    }
+}
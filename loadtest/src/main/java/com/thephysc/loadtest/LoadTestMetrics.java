@@ -0,0 +1,91 @@
+package com.thephysc.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms (in microseconds) and counters shared by every simulated participant.
+ */
+final class LoadTestMetrics {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    final Histogram connectLatency = histogram();
+    final Histogram offerLatency = histogram();
+    final Histogram answerLatency = histogram();
+    final Histogram candidateLatency = histogram();
+
+    final LongAdder connected = new LongAdder();
+    final LongAdder framesSent = new LongAdder();
+    final LongAdder framesReceived = new LongAdder();
+    final LongAdder signalsReceived = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void error(String category) {
+        errors.computeIfAbsent(category, key -> new LongAdder()).increment();
+    }
+
+    long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    static void record(Histogram histogram, long elapsedNanos) {
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), MAX_TRACKABLE_MICROS));
+    }
+
+    void report(PrintStream out, LoadTestOptions options, long elapsedNanos) {
+        long attempted = (long) options.rooms * options.participants;
+        long expected = options.expectedFrames();
+        long received = signalsReceived.sum();
+        double seconds = elapsedNanos / 1e9;
+
+        out.println();
+        out.println("Signaling load test: " + options);
+        out.printf("  duration            %.1f s%n", seconds);
+        out.printf("  connections         %d/%d (%.2f%% failed)%n",
+                connected.sum(), attempted, percent(attempted - connected.sum(), attempted));
+        out.printf("  signals delivered   %d/%d (%.2f%% lost)%n",
+                received, expected, percent(Math.max(0, expected - received), expected));
+        out.printf("  frames              %d sent, %d received, %.0f frames/s%n",
+                framesSent.sum(), framesReceived.sum(), (framesSent.sum() + framesReceived.sum()) / seconds);
+        out.println();
+        out.println("  latency (ms)            count      p50      p90      p99    p99.9      max");
+        line(out, "connect", connectLatency);
+        line(out, "relay offer", offerLatency);
+        line(out, "relay answer", answerLatency);
+        line(out, "relay ice-candidate", candidateLatency);
+        out.println();
+        if (errors.isEmpty()) {
+            out.println("  errors              none");
+        } else {
+            out.printf("  errors              %d%n", errorCount());
+            new TreeMap<>(errors).forEach((category, count) ->
+                    out.printf("    %-30s %d%n", category, count.sum()));
+        }
+    }
+
+    private static void line(PrintStream out, String name, Histogram histogram) {
+        out.printf("  %-20s %8d %8.2f %8.2f %8.2f %8.2f %8.2f%n", name, histogram.getTotalCount(),
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    private static Histogram histogram() {
+        return new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    }
+}
@@ -0,0 +1,81 @@
+package com.thephysc.loadtest;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line options, given as {@code --name=value}.
+ */
+final class LoadTestOptions {
+
+    final URI apiBase;
+    final URI signalingUri;
+    final int rooms;
+    final int participants;
+    final int candidates;
+    final int rounds;
+    final long roundIntervalMs;
+    final double connectRate;
+    final int clients;
+    final long holdMs;
+    final long timeoutMs;
+    final String password;
+
+    private LoadTestOptions(Map<String, String> values) {
+        String api = values.getOrDefault("api", "http://localhost:8080/api");
+        this.apiBase = URI.create(api.endsWith("/") ? api.substring(0, api.length() - 1) : api);
+        this.signalingUri = URI.create(values.getOrDefault("ws",
+                apiBase.toString().replaceFirst("^http", "ws") + "/api/ws/rtc"));
+        this.rooms = intValue(values, "rooms", 100);
+        this.participants = intValue(values, "participants", 2);
+        this.candidates = intValue(values, "candidates", 8);
+        this.rounds = intValue(values, "rounds", 1);
+        this.roundIntervalMs = longValue(values, "round-interval-ms", 1000);
+        this.connectRate = Double.parseDouble(values.getOrDefault("connect-rate", "200"));
+        this.clients = intValue(values, "clients", 4);
+        this.holdMs = longValue(values, "hold-ms", 0);
+        this.timeoutMs = longValue(values, "timeout-ms", 60_000);
+        this.password = values.getOrDefault("password", "LoadTest#2024");
+        if (participants < 2) {
+            throw new IllegalArgumentException("--participants must be at least 2");
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    /**
+     * Offers, answers and candidates each participant pair exchanges over the whole run.
+     */
+    long expectedFrames() {
+        long pairs = (long) rooms * participants * (participants - 1) / 2;
+        return pairs * rounds * (2 + 2L * candidates);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rooms x %d participants, %d round(s) of offer/answer + %d candidates per side, "
+                        + "connect rate %.0f/s over %d client(s), target %s",
+                rooms, participants, rounds, candidates, connectRate, clients, signalingUri);
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static long longValue(Map<String, String> values, String name, long defaultValue) {
+        String value = values.get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+}
@@ -0,0 +1,206 @@
+package com.thephysc.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for the signaling endpoint: opens {@code rooms x participants} WebSockets,
+ * lets every participant pair of a room run an offer/answer exchange with trickled ICE
+ * candidates, and reports connect and relay latency percentiles and error counts.
+ * <p>
+ * Runs entirely on localhost. Start the backend on an in-memory H2 database with raised
+ * handshake limits, then run the harness against it:
+ * <pre>
+ * cd backend  &amp;&amp; mvn -Ploadtest spring-boot:run
+ * cd loadtest &amp;&amp; mvn package &amp;&amp; java -jar target/the-physc-loadtest-0.0.1-SNAPSHOT.jar --rooms=1000 --participants=2
+ * </pre>
+ * Options: {@code --api} (default {@code http://localhost:8080/api}), {@code --ws}, {@code --rooms},
+ * {@code --participants}, {@code --candidates}, {@code --rounds}, {@code --round-interval-ms},
+ * {@code --connect-rate} (new sockets per second), {@code --clients}, {@code --hold-ms} (keep the
+ * sockets open afterwards, e.g. to watch heartbeats), {@code --timeout-ms} and {@code --password}.
+ * <p>
+ * Participant accounts are registered once and reused in every room, since a participant only
+ * needs to be unique within its session. Exits with status 1 if any error occurred or any
+ * signal was lost.
+ */
+public final class SignalingLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final LoadTestOptions options;
+    private final LoadTestMetrics metrics = new LoadTestMetrics();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "loadtest-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final AtomicLong outstandingSignals;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    SignalingLoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.outstandingSignals = new AtomicLong(options.expectedFrames());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        boolean clean = new SignalingLoadTest(options).run();
+        System.exit(clean ? 0 : 1);
+    }
+
+    LoadTestOptions getOptions() {
+        return options;
+    }
+
+    ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    void signalDelivered() {
+        if (outstandingSignals.decrementAndGet() == 0) {
+            finished.countDown();
+        }
+    }
+
+    void roomAbandoned() {
+        long perRoom = options.expectedFrames() / options.rooms;
+        if (outstandingSignals.addAndGet(-perRoom) == 0) {
+            finished.countDown();
+        }
+    }
+
+    private boolean run() throws IOException, InterruptedException {
+        System.out.println("Preparing " + options.participants + " participant accounts at " + options.apiBase);
+        List<String[]> accounts = new ArrayList<>();
+        for (int i = 0; i < options.participants; i++) {
+            String token = login("loadtest-" + i + "@loadtest.local");
+            accounts.add(new String[]{subject(token), token});
+        }
+
+        List<SimulatedRoom> rooms = new ArrayList<>();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int r = 0; r < options.rooms; r++) {
+            SimulatedRoom room = new SimulatedRoom("loadtest-" + runId + "-" + r, this);
+            for (String[] account : accounts) {
+                room.add(new SimulatedParticipant(room, account[0], account[1], metrics, options.candidates));
+            }
+            rooms.add(room);
+        }
+
+        HttpClient[] clients = new HttpClient[Math.max(1, options.clients)];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = HttpClient.newHttpClient();
+        }
+
+        System.out.println("Connecting: " + options);
+        long startedAt = System.nanoTime();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.connectRate);
+        long next = startedAt;
+        int socket = 0;
+        for (SimulatedRoom room : rooms) {
+            for (SimulatedParticipant participant : room.getParticipants()) {
+                LockSupport.parkNanos(next - System.nanoTime());
+                participant.connect(clients[socket++ % clients.length], options.signalingUri);
+                next += intervalNanos;
+            }
+        }
+
+        if (!finished.await(options.timeoutMs, TimeUnit.MILLISECONDS)) {
+            metrics.error("timed out waiting for signals");
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        if (options.holdMs > 0) {
+            System.out.println("Holding connections open for " + options.holdMs + " ms");
+            Thread.sleep(options.holdMs);
+        }
+
+        List<CompletableFuture<?>> closes = new ArrayList<>();
+        rooms.forEach(room -> room.getParticipants().forEach(participant -> closes.add(participant.close())));
+        try {
+            CompletableFuture.allOf(closes.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            metrics.error("close did not complete");
+        }
+
+        metrics.report(System.out, options, elapsed);
+        return metrics.errorCount() == 0 && metrics.signalsReceived.sum() == options.expectedFrames();
+    }
+
+    /**
+     * Logs the account in, registering it first if it does not exist yet.
+     */
+    private String login(String email) throws IOException, InterruptedException {
+        ObjectNode credentials = MAPPER.createObjectNode().put("email", email).put("password", options.password);
+        HttpResponse<String> response = post("/auth/login", credentials);
+        if (response.statusCode() != 200) {
+            ObjectNode registration = credentials.deepCopy()
+                    .put("firstName", "Load")
+                    .put("lastName", "Test")
+                    .put("phone", "5550000000")
+                    .put("role", "ROLE_DOCTOR")
+                    .put("specialty", "General Practice")
+                    .put("license", "LT-" + email.hashCode())
+                    .put("yearsOfExperience", 1)
+                    .put("consultationFee", 0);
+            HttpResponse<String> registered = post("/auth/register", registration);
+            if (registered.statusCode() / 100 != 2) {
+                throw new IOException("Cannot register " + email + ": " + registered.statusCode() + " " + registered.body());
+            }
+            response = post("/auth/login", credentials);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Cannot log in " + email + ": " + response.statusCode() + " " + response.body());
+        }
+        return MAPPER.readTree(response.body()).path("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, JsonNode body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.apiBase + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * The participant id the server will assign: the token's subject.
+     */
+    private static String subject(String token) throws IOException {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            throw new IOException("Login returned a malformed token");
+        }
+        byte[] claims = Base64.getUrlDecoder().decode(parts[1]);
+        return MAPPER.readTree(new String(claims, StandardCharsets.UTF_8)).path("sub").asText();
+    }
+}
@@ -0,0 +1,249 @@
+package com.thephysc.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.net.http.WebSocketHandshakeException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * One participant's signaling socket.
+ * <p>
+ * Offers, answers and candidates carry the sender's {@link System#nanoTime()} in their
+ * {@code data}, so the receiver, running in the same JVM, measures the relay latency through the
+ * server directly. Sends go through a chain of futures because the JDK WebSocket allows only one
+ * outstanding send at a time.
+ */
+final class SimulatedParticipant implements WebSocket.Listener {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SDP = syntheticSdp();
+
+    private final SimulatedRoom room;
+    private final String participantId;
+    private final String token;
+    private final LoadTestMetrics metrics;
+    private final int candidates;
+
+    private final StringBuilder partial = new StringBuilder();
+    private volatile WebSocket webSocket;
+    private volatile boolean closing;
+    private long connectStartedAt;
+    private CompletableFuture<?> sendTail = CompletableFuture.completedFuture(null);
+
+    SimulatedParticipant(SimulatedRoom room, String participantId, String token,
+                         LoadTestMetrics metrics, int candidates) {
+        this.room = room;
+        this.participantId = participantId;
+        this.token = token;
+        this.metrics = metrics;
+        this.candidates = candidates;
+    }
+
+    String getParticipantId() {
+        return participantId;
+    }
+
+    void connect(HttpClient client, URI signalingUri) {
+        URI uri = URI.create(signalingUri + "?sessionId=" + encode(room.getSessionId()) + "&token=" + encode(token));
+        connectStartedAt = System.nanoTime();
+        client.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .buildAsync(uri, this)
+                .whenComplete((ws, e) -> {
+                    if (e != null) {
+                        metrics.error(connectError(unwrap(e)));
+                        room.onFailed();
+                    }
+                });
+    }
+
+    /**
+     * Starts one negotiation with a peer; the peer answers and both sides trickle candidates.
+     */
+    void offer(String peerId) {
+        send(peerId, "offer", data -> data.put("type", "offer").put("sdp", SDP));
+    }
+
+    CompletableFuture<?> close() {
+        closing = true;
+        WebSocket ws = webSocket;
+        if (ws == null || ws.isOutputClosed()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueue(() -> ws.sendClose(WebSocket.NORMAL_CLOSURE, "load test finished"));
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        this.webSocket = webSocket;
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence text, boolean last) {
+        partial.append(text);
+        if (last) {
+            String frame = partial.toString();
+            partial.setLength(0);
+            metrics.framesReceived.increment();
+            try {
+                handle(MAPPER.readTree(frame));
+            } catch (IOException | RuntimeException e) {
+                metrics.error("bad frame");
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        if (!closing) {
+            metrics.error("closed by server (" + statusCode + ")");
+        }
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        if (!closing) {
+            metrics.error("socket " + error.getClass().getSimpleName());
+        }
+    }
+
+    private void handle(JsonNode frame) {
+        String type = frame.path("type").asText();
+        String from = frame.path("from").asText(null);
+        JsonNode data = frame.path("data");
+        switch (type) {
+            case "session":
+                LoadTestMetrics.record(metrics.connectLatency, System.nanoTime() - connectStartedAt);
+                metrics.connected.increment();
+                room.onJoined();
+                break;
+            case "offer":
+                delivered(metrics.offerLatency, data);
+                send(from, "answer", answer -> answer.put("type", "answer").put("sdp", SDP));
+                trickle(from);
+                break;
+            case "answer":
+                delivered(metrics.answerLatency, data);
+                trickle(from);
+                break;
+            case "ice-candidate":
+                delivered(metrics.candidateLatency, data);
+                break;
+            case "ice-candidates":
+                data.forEach(candidate -> delivered(metrics.candidateLatency, candidate));
+                break;
+            case "error":
+                metrics.error("error frame");
+                break;
+            default:
+                // Presence updates need no reply
+        }
+    }
+
+    private void trickle(String peerId) {
+        for (int i = 0; i < candidates; i++) {
+            int port = 50000 + i;
+            send(peerId, "ice-candidate", data -> data
+                    .put("candidate", "candidate:" + port + " 1 udp 2122260223 192.168.1.20 " + port + " typ host")
+                    .put("sdpMid", "0")
+                    .put("sdpMLineIndex", 0));
+        }
+    }
+
+    private void delivered(Histogram histogram, JsonNode data) {
+        JsonNode sentAt = data.get("ts");
+        if (sentAt == null) {
+            metrics.error("signal without timestamp");
+            return;
+        }
+        LoadTestMetrics.record(histogram, System.nanoTime() - sentAt.asLong());
+        metrics.signalsReceived.increment();
+        room.onSignal();
+    }
+
+    /**
+     * Builds the frame when its turn to go out comes, so the timestamp excludes local queueing.
+     */
+    private void send(String to, String type, Consumer<ObjectNode> data) {
+        WebSocket ws = webSocket;
+        if (ws == null || closing) {
+            return;
+        }
+        enqueue(() -> {
+            ObjectNode frame = MAPPER.createObjectNode()
+                    .put("sessionId", room.getSessionId())
+                    .put("to", to)
+                    .put("type", type);
+            ObjectNode payload = frame.putObject("data");
+            data.accept(payload);
+            payload.put("ts", System.nanoTime());
+            return ws.sendText(frame.toString(), true).thenRun(metrics.framesSent::increment);
+        });
+    }
+
+    private synchronized CompletableFuture<?> enqueue(Supplier<CompletableFuture<?>> send) {
+        sendTail = sendTail
+                .thenCompose(ignored -> send.get())
+                .exceptionally(e -> {
+                    if (!closing) {
+                        metrics.error("send " + unwrap(e).getClass().getSimpleName());
+                    }
+                    return null;
+                });
+        return sendTail;
+    }
+
+    private static String connectError(Throwable error) {
+        if (error instanceof WebSocketHandshakeException) {
+            return "handshake rejected (" + ((WebSocketHandshakeException) error).getResponse().statusCode() + ")";
+        }
+        return "connect " + error.getClass().getSimpleName();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An SDP of realistic size for one audio and one video section.
+     */
+    private static String syntheticSdp() {
+        StringBuilder sdp = new StringBuilder("v=0\r\no=- 4611731400430051336 2 IN IP4 127.0.0.1\r\ns=-\r\nt=0 0\r\n")
+                .append("a=group:BUNDLE 0 1\r\na=msid-semantic: WMS stream\r\n");
+        String[] kinds = {"audio 9 UDP/TLS/RTP/SAVPF 111 63 103", "video 9 UDP/TLS/RTP/SAVPF 96 97 98 99 100 101"};
+        for (int m = 0; m < kinds.length; m++) {
+            sdp.append("m=").append(kinds[m]).append("\r\nc=IN IP4 0.0.0.0\r\na=rtcp:9 IN IP4 0.0.0.0\r\n")
+                    .append("a=ice-ufrag:LdT5\r\na=ice-pwd:6s7KzwVqC3u2RlNnJ5fD0bqE\r\na=ice-options:trickle\r\n")
+                    .append("a=fingerprint:sha-256 4F:2B:7C:91:0A:DE:33:58:6E:12:AB:C4:9F:70:E1:25:")
+                    .append("88:3D:5A:B6:0C:47:F9:1E:62:D8:AF:05:93:7B:C0:14\r\n")
+                    .append("a=setup:actpass\r\na=mid:").append(m).append("\r\na=sendrecv\r\na=rtcp-mux\r\n");
+            for (int pt = 0; pt < 6; pt++) {
+                sdp.append("a=rtpmap:").append(96 + pt).append(" VP8/90000\r\na=rtcp-fb:").append(96 + pt)
+                        .append(" nack pli\r\na=fmtp:").append(96 + pt).append(" apt=").append(100 + pt).append("\r\n");
+            }
+        }
+        return sdp.toString();
+    }
+}
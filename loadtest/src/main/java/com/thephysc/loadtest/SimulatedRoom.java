@@ -0,0 +1,73 @@
+package com.thephysc.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One video session: once every participant has joined, each pair negotiates once per round.
+ * A room in which any participant failed to connect is abandoned and its signals count as lost.
+ */
+final class SimulatedRoom {
+
+    private final String sessionId;
+    private final List<SimulatedParticipant> participants = new ArrayList<>();
+    private final AtomicInteger settled = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final SignalingLoadTest loadTest;
+
+    SimulatedRoom(String sessionId, SignalingLoadTest loadTest) {
+        this.sessionId = sessionId;
+        this.loadTest = loadTest;
+    }
+
+    String getSessionId() {
+        return sessionId;
+    }
+
+    List<SimulatedParticipant> getParticipants() {
+        return participants;
+    }
+
+    void add(SimulatedParticipant participant) {
+        participants.add(participant);
+    }
+
+    void onJoined() {
+        settle();
+    }
+
+    void onFailed() {
+        failed.incrementAndGet();
+        settle();
+    }
+
+    void onSignal() {
+        loadTest.signalDelivered();
+    }
+
+    private void settle() {
+        if (settled.incrementAndGet() != participants.size()) {
+            return;
+        }
+        if (failed.get() > 0) {
+            loadTest.roomAbandoned();
+            return;
+        }
+        ScheduledExecutorService scheduler = loadTest.getScheduler();
+        LoadTestOptions options = loadTest.getOptions();
+        for (int round = 0; round < options.rounds; round++) {
+            scheduler.schedule(this::negotiate, round * options.roundIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void negotiate() {
+        for (int i = 0; i < participants.size(); i++) {
+            for (int j = i + 1; j < participants.size(); j++) {
+                participants.get(i).offer(participants.get(j).getParticipantId());
+            }
+        }
+    }
+}